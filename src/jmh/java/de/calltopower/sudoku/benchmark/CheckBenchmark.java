@@ -0,0 +1,68 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.calltopower.sudoku.solver.SolverEngine;
+import de.calltopower.sudoku.solver.SudokuSolver;
+import de.calltopower.sudoku.util.Grid;
+
+/**
+ * checkGrid() on the solutions and checkGridValidity() on the puzzles of a corpus. Both are static methods of
+ * SudokuSolver, so no engine is involved.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CheckBenchmark {
+
+    private static final int MAX_NR_OF_TRIES = 10000000;
+
+    @Param({ "EASY", "HARD", "SEVENTEEN", "ADVERSARIAL" })
+    private Corpus corpus;
+
+    private Grid[] puzzles;
+    private Grid[] solutions;
+
+    @Setup
+    public void setup() {
+        puzzles = corpus.load();
+        solutions = new Grid[puzzles.length];
+        for (int n = 0; n < puzzles.length; ++n) {
+            SudokuSolver solver = SolverEngine.DANCING_LINKS.create(puzzles[n], MAX_NR_OF_TRIES, false);
+            if (!solver.solve()) {
+                throw new IllegalStateException("Could not solve puzzle " + n + " of " + corpus);
+            }
+            solutions[n] = solver.getGrid();
+        }
+    }
+
+    @Benchmark
+    public void checkGrid(Blackhole blackhole) {
+        for (Grid solution : solutions) {
+            blackhole.consume(SudokuSolver.checkGrid(solution));
+        }
+    }
+
+    @Benchmark
+    public void checkGridValidity(Blackhole blackhole) {
+        for (Grid puzzle : puzzles) {
+            blackhole.consume(SudokuSolver.checkGridValidity(puzzle));
+        }
+    }
+
+}
@@ -0,0 +1,52 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.calltopower.sudoku.util.Grid;
+import de.calltopower.sudoku.util.PuzzleReader;
+
+/**
+ * The checked-in puzzle corpora under src/jmh/resources/corpora
+ */
+public enum Corpus {
+
+    EASY("easy.txt"), HARD("hard.txt"), SEVENTEEN("seventeen.txt"), ADVERSARIAL("adversarial.txt");
+
+    private final String fileName;
+
+    private Corpus(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public Grid[] load() {
+        List<Grid> puzzles = new ArrayList<>();
+        try (InputStream in = Corpus.class.getResourceAsStream("/corpora/" + fileName)) {
+            if (in == null) {
+                throw new IllegalStateException("Corpus '" + fileName + "' not found on the classpath");
+            }
+            try (PuzzleReader reader = new PuzzleReader(in)) {
+                Grid puzzle = new Grid();
+                while (reader.next(puzzle)) {
+                    if (!reader.isValid()) {
+                        throw new IllegalStateException("Invalid puzzle in corpus '" + fileName + "'");
+                    }
+                    puzzles.add(puzzle);
+                    puzzle = new Grid();
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return puzzles.toArray(new Grid[0]);
+    }
+
+}
@@ -0,0 +1,56 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import de.calltopower.sudoku.generator.Generator;
+import de.calltopower.sudoku.solver.SolverEngine;
+import de.calltopower.sudoku.util.Constants;
+import de.calltopower.sudoku.util.Grid;
+
+/**
+ * Generates one puzzle per invocation for each difficulty of the UI. The random generator is seeded once per trial,
+ * so every fork generates the same sequence of puzzles.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GeneratorBenchmark {
+
+    private static final long SEED = 42L;
+
+    @Param({ "35", "28", "22", "18" })
+    private int difficulty;
+
+    @Param({ "BACKTRACKING", "DANCING_LINKS" })
+    private SolverEngine engine;
+
+    private Random random;
+
+    @Setup
+    public void setup() {
+        random = new Random(SEED);
+    }
+
+    @Benchmark
+    public Grid generate() {
+        Generator generator = new Generator(difficulty, Constants.DEFAULT_MAX_NR_OF_TRIES, engine, false, random);
+        generator.generate();
+        return generator.getGrid();
+    }
+
+}
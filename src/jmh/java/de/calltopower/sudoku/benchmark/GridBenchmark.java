@@ -0,0 +1,55 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import de.calltopower.sudoku.util.Grid;
+
+/**
+ * The grid operations every solve and generation is built from. Run with the gc profiler to see their allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GridBenchmark {
+
+    private Grid puzzle;
+    private Grid target;
+    private String spaced;
+
+    @Setup
+    public void setup() {
+        puzzle = Corpus.HARD.load()[0];
+        target = new Grid();
+        spaced = puzzle.toString();
+    }
+
+    @Benchmark
+    public Grid copy() {
+        target.copy(puzzle);
+        return target;
+    }
+
+    @Benchmark
+    public boolean fromString() {
+        return target.fromString(spaced);
+    }
+
+    @Benchmark
+    public String toSpacedString() {
+        return puzzle.toString();
+    }
+
+}
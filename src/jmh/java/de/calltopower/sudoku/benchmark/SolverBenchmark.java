@@ -0,0 +1,68 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.calltopower.sudoku.solver.SolverEngine;
+import de.calltopower.sudoku.solver.SudokuSolver;
+import de.calltopower.sudoku.util.Grid;
+
+/**
+ * Solves every puzzle of a corpus once per invocation, so the score is the average time per corpus. solve() resets
+ * one solver to each puzzle, createAndSolve() adds the cost of constructing a solver per puzzle.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SolverBenchmark {
+
+    private static final int MAX_NR_OF_TRIES = 10000000;
+
+    @Param({ "EASY", "HARD", "SEVENTEEN", "ADVERSARIAL" })
+    private Corpus corpus;
+
+    @Param({ "BACKTRACKING", "ITERATIVE", "PARALLEL", "DANCING_LINKS" })
+    private SolverEngine engine;
+
+    private Grid[] puzzles;
+    private SudokuSolver solver;
+
+    @Setup
+    public void setup() {
+        puzzles = corpus.load();
+        solver = engine.create(puzzles[0], MAX_NR_OF_TRIES, false);
+    }
+
+    @Benchmark
+    public void solve(Blackhole blackhole) {
+        for (Grid puzzle : puzzles) {
+            solver.reset(puzzle);
+            blackhole.consume(solver.solve());
+            blackhole.consume(solver.getGrid());
+        }
+    }
+
+    @Benchmark
+    public void createAndSolve(Blackhole blackhole) {
+        for (Grid puzzle : puzzles) {
+            SudokuSolver solver = engine.create(puzzle, MAX_NR_OF_TRIES, false);
+            blackhole.consume(solver.solve());
+            blackhole.consume(solver.getGrid());
+        }
+    }
+
+}
@@ -5,21 +5,53 @@
  */
 package de.calltopower.sudoku;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import de.calltopower.sudoku.cli.BulkSolver;
 import de.calltopower.sudoku.gui.SplashScreen;
 import de.calltopower.sudoku.gui.SudokuUI;
+import de.calltopower.sudoku.server.LoadGenerator;
+import de.calltopower.sudoku.server.SudokuServer;
+import de.calltopower.sudoku.solver.SolverEngine;
+import de.calltopower.sudoku.util.Constants;
+import de.calltopower.sudoku.util.Grid;
 import de.calltopower.sudoku.util.Helper;
+import de.calltopower.sudoku.util.PuzzleReader;
 
 public class Application {
 
     private static final Logger LOGGER = LogManager.getLogger(Application.class);
 
+    private static final String ENGINES = "<BACKTRACKING|ITERATIVE|PARALLEL|DANCING_LINKS>";
+    private static final String USAGE = "Usage: --solve <input file> <output file> [--engine=" + ENGINES
+            + "] [--max-tries=<n>] [--time-budget=<ms>] [--histograms]\n"
+            + "       --serve [--port=<n>] [--engine=" + ENGINES
+            + "] [--max-tries=<n>] [--time-budget=<ms>] [--queue=<n>]\n"
+            + "       --load <url> <puzzle file> [--requests=<n>] [--concurrency=<n>] [--batch=<n>]";
+
     /**
-     * @param args the command line arguments
+     * @param args the command line arguments, see USAGE for the headless mode, none for the UI
      */
     public static void main(String[] args) {
+        if ((args.length > 0) && args[0].equals("--solve")) {
+            System.exit(solveHeadless(args));
+        }
+        if ((args.length > 0) && args[0].equals("--serve")) {
+            int status = serve(args);
+            if (status != 0) {
+                System.exit(status);
+            }
+            return;
+        }
+        if ((args.length > 0) && args[0].equals("--load")) {
+            System.exit(load(args));
+        }
+
         Helper.printSystemInformation();
 
         LOGGER.debug("Setting up splashscreen");
@@ -45,4 +77,148 @@ public class Application {
         ui.setVisible(true);
     }
 
+    private static int solveHeadless(String[] args) {
+        if (args.length < 3) {
+            System.err.println(USAGE);
+            return 2;
+        }
+        SolverEngine solverEngine = SolverEngine.BACKTRACKING;
+        int maxNrOfTries = Constants.DEFAULT_MAX_NR_OF_TRIES;
+        long timeBudgetMillis = 0;
+        boolean histograms = false;
+        try {
+            for (int k = 3; k < args.length; ++k) {
+                if (args[k].startsWith("--engine=")) {
+                    solverEngine = SolverEngine.valueOf(args[k].substring("--engine=".length()).toUpperCase());
+                } else if (args[k].startsWith("--max-tries=")) {
+                    maxNrOfTries = Integer.parseInt(args[k].substring("--max-tries=".length()));
+                } else if (args[k].startsWith("--time-budget=")) {
+                    timeBudgetMillis = Long.parseLong(args[k].substring("--time-budget=".length()));
+                } else if (args[k].equals("--histograms")) {
+                    histograms = true;
+                } else {
+                    throw new IllegalArgumentException("Unknown option " + args[k]);
+                }
+            }
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            System.err.println(USAGE);
+            return 2;
+        }
+
+        try {
+            BulkSolver bulkSolver = new BulkSolver(solverEngine, maxNrOfTries, timeBudgetMillis);
+            BulkSolver.Statistics statistics = bulkSolver.solve(args[1], args[2]);
+            System.out.println(statistics);
+            if (histograms) {
+                System.out.print(statistics.getHistograms());
+            }
+            return (statistics.getNrOfSolved() == statistics.getNrOfPuzzles()) ? 0 : 1;
+        } catch (IOException ex) {
+            LOGGER.error("Could not solve '" + args[1] + "': " + ex.getMessage());
+            return 1;
+        }
+    }
+
+    /**
+     * Starts the server, which keeps running until the process is stopped
+     */
+    private static int serve(String[] args) {
+        int port = SudokuServer.DEFAULT_PORT;
+        SolverEngine solverEngine = SolverEngine.BACKTRACKING;
+        int maxNrOfTries = Constants.DEFAULT_MAX_NR_OF_TRIES;
+        long timeBudgetMillis = 0;
+        int queueCapacity = SudokuServer.DEFAULT_QUEUE_CAPACITY;
+        try {
+            for (int k = 1; k < args.length; ++k) {
+                if (args[k].startsWith("--port=")) {
+                    port = Integer.parseInt(args[k].substring("--port=".length()));
+                } else if (args[k].startsWith("--engine=")) {
+                    solverEngine = SolverEngine.valueOf(args[k].substring("--engine=".length()).toUpperCase());
+                } else if (args[k].startsWith("--max-tries=")) {
+                    maxNrOfTries = Integer.parseInt(args[k].substring("--max-tries=".length()));
+                } else if (args[k].startsWith("--time-budget=")) {
+                    timeBudgetMillis = Long.parseLong(args[k].substring("--time-budget=".length()));
+                } else if (args[k].startsWith("--queue=")) {
+                    queueCapacity = Integer.parseInt(args[k].substring("--queue=".length()));
+                } else {
+                    throw new IllegalArgumentException("Unknown option " + args[k]);
+                }
+            }
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            System.err.println(USAGE);
+            return 2;
+        }
+
+        // Without TCP_NODELAY small responses wait for the client's delayed ACK, read once when the first server starts
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        try {
+            SudokuServer server = new SudokuServer(port, solverEngine, maxNrOfTries, timeBudgetMillis,
+                    queueCapacity);
+            Runtime.getRuntime().addShutdownHook(new Thread(server::stop, "SudokuServer-Shutdown"));
+            server.start();
+            return 0;
+        } catch (IOException ex) {
+            LOGGER.error("Could not start the server on port " + port + ": " + ex.getMessage());
+            return 1;
+        }
+    }
+
+    private static int load(String[] args) {
+        if (args.length < 3) {
+            System.err.println(USAGE);
+            return 2;
+        }
+        int nrOfRequests = 10000;
+        int concurrency = 16;
+        int batchSize = 1;
+        try {
+            for (int k = 3; k < args.length; ++k) {
+                if (args[k].startsWith("--requests=")) {
+                    nrOfRequests = Integer.parseInt(args[k].substring("--requests=".length()));
+                } else if (args[k].startsWith("--concurrency=")) {
+                    concurrency = Integer.parseInt(args[k].substring("--concurrency=".length()));
+                } else if (args[k].startsWith("--batch=")) {
+                    batchSize = Integer.parseInt(args[k].substring("--batch=".length()));
+                } else {
+                    throw new IllegalArgumentException("Unknown option " + args[k]);
+                }
+            }
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            System.err.println(USAGE);
+            return 2;
+        }
+
+        List<String> puzzles = new ArrayList<>();
+        try (PuzzleReader reader = new PuzzleReader(args[2])) {
+            Grid puzzle = new Grid();
+            while (reader.next(puzzle)) {
+                if (reader.isValid()) {
+                    puzzles.add(puzzle.toCompactString());
+                }
+            }
+        } catch (IOException ex) {
+            LOGGER.error("Could not read '" + args[2] + "': " + ex.getMessage());
+            return 1;
+        }
+        if (puzzles.isEmpty()) {
+            LOGGER.error("No puzzles in '" + args[2] + "'");
+            return 1;
+        }
+
+        try {
+            LoadGenerator.Statistics statistics = new LoadGenerator(args[1], concurrency, batchSize).run(puzzles,
+                    nrOfRequests);
+            System.out.println(statistics);
+            return (statistics.getNrOfErrors() == 0) ? 0 : 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 1;
+        }
+    }
+
 }
@@ -0,0 +1,141 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.cli;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.calltopower.sudoku.solver.SolveHistograms;
+import de.calltopower.sudoku.solver.SolverEngine;
+import de.calltopower.sudoku.solver.SudokuSolver;
+import de.calltopower.sudoku.util.Grid;
+import de.calltopower.sudoku.util.PuzzleReader;
+import de.calltopower.sudoku.util.PuzzleWriter;
+import lombok.Getter;
+
+/**
+ * Solves a file of puzzles, one 81-character puzzle per line ('.' or '0' for empty cells, optionally gzipped), without
+ * keeping the file in memory. The file is parsed on a separate thread while the puzzles are solved. Every input line
+ * gets one output line: the solution, or an empty line if the puzzle is invalid or could not be solved. Empty input
+ * lines and lines starting with '#' are skipped.
+ */
+public class BulkSolver {
+
+    private static final Logger LOGGER = LogManager.getLogger(BulkSolver.class);
+
+    private static final int QUEUE_CAPACITY = 4096;
+
+    private final SolverEngine solverEngine;
+    private final int maxNrOfTries;
+    private final long timeBudgetMillis;
+
+    public BulkSolver(SolverEngine solverEngine, int maxNrOfTries) {
+        this(solverEngine, maxNrOfTries, 0);
+    }
+
+    /**
+     * @param timeBudgetMillis the time after which a puzzle counts as unsolved, 0 for none
+     */
+    public BulkSolver(SolverEngine solverEngine, int maxNrOfTries, long timeBudgetMillis) {
+        this.solverEngine = solverEngine;
+        this.maxNrOfTries = maxNrOfTries;
+        this.timeBudgetMillis = timeBudgetMillis;
+    }
+
+    public Statistics solve(String inputFileName, String outputFileName) throws IOException {
+        LOGGER.info("Solving '" + inputFileName + "' with " + solverEngine.getDisplayName() + " into '"
+                + outputFileName + "'");
+        Statistics statistics = new Statistics();
+        long start = System.nanoTime();
+        BlockingQueue<Grid> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        // Puzzles the solver has copied go back to the reader, so it reads into the same grids again
+        BlockingQueue<Grid> free = new ArrayBlockingQueue<>(QUEUE_CAPACITY + 1);
+        PuzzleReader reader = new PuzzleReader(inputFileName);
+        Thread readerThread = reader.readInto(queue, free);
+        try (PuzzleWriter writer = new PuzzleWriter(outputFileName)) {
+            // One solver for all puzzles, reset to each of them
+            SudokuSolver solver = null;
+            Grid puzzle = queue.take();
+            while ((puzzle != PuzzleReader.END_OF_INPUT) && (puzzle != PuzzleReader.READ_ERROR)) {
+                ++statistics.nrOfPuzzles;
+                if (puzzle == PuzzleReader.INVALID) {
+                    ++statistics.nrOfInvalid;
+                    writer.writeEmptyLine();
+                } else {
+                    if (solver == null) {
+                        solver = solverEngine.create(puzzle, maxNrOfTries, false);
+                    } else {
+                        solver.reset(puzzle);
+                    }
+                    free.offer(puzzle);
+                    if (timeBudgetMillis > 0) {
+                        solver.setTimeBudget(timeBudgetMillis);
+                    }
+                    boolean solved = solver.solve();
+                    statistics.histograms.add(solver.getStatistics());
+                    if (solved) {
+                        ++statistics.nrOfSolved;
+                        writer.write(solver.getGrid());
+                    } else {
+                        writer.writeEmptyLine();
+                    }
+                }
+                puzzle = queue.take();
+            }
+            if (puzzle == PuzzleReader.READ_ERROR) {
+                throw new IOException("Could not read all of '" + inputFileName + "' (" + statistics.nrOfPuzzles
+                        + " puzzles read): " + reader.getReadError().getMessage(), reader.getReadError());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while solving '" + inputFileName + "'", e);
+        } finally {
+            // Lets the reader go if solving or writing failed while it waits for room in the queue
+            readerThread.interrupt();
+        }
+        statistics.nanos = System.nanoTime() - start;
+        return statistics;
+    }
+
+    public static class Statistics {
+
+        @Getter
+        private int nrOfPuzzles;
+        @Getter
+        private int nrOfSolved;
+        @Getter
+        private int nrOfInvalid;
+        @Getter
+        private long nanos;
+        /**
+         * The search statistics of all valid puzzles
+         */
+        @Getter
+        private final SolveHistograms histograms = new SolveHistograms();
+
+        public int getNrOfUnsolved() {
+            return nrOfPuzzles - nrOfSolved - nrOfInvalid;
+        }
+
+        public double getPuzzlesPerSecond() {
+            return (nanos > 0) ? (nrOfPuzzles * 1e9) / nanos : 0;
+        }
+
+        @Override
+        public String toString() {
+            return nrOfPuzzles + " puzzles (" + nrOfSolved + " solved, " + getNrOfUnsolved() + " unsolved, "
+                    + nrOfInvalid + " invalid) in " + (nanos / 1000000) + " ms, "
+                    + String.format("%.1f", getPuzzlesPerSecond()) + " puzzles/s, "
+                    + String.format("%.1f", (nrOfPuzzles > 0) ? (nanos / 1e3) / nrOfPuzzles : 0.0) + " us/puzzle";
+        }
+
+    }
+
+}
@@ -0,0 +1,254 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.generator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.calltopower.sudoku.solver.Rater;
+import de.calltopower.sudoku.solver.SolverEngine;
+import de.calltopower.sudoku.solver.Technique;
+import de.calltopower.sudoku.util.Grid;
+import de.calltopower.sudoku.util.GridTransform;
+import de.calltopower.sudoku.util.NamedThreadFactory;
+import lombok.Getter;
+
+/**
+ * Generates many puzzles of one difficulty on a pool of worker threads. Every worker draws from its own Random stream,
+ * split off a single seed, generates a fixed share of the puzzles and hands each finished puzzle to the sink right
+ * away. So a seed and no. of threads always give the same puzzles, only the order in which the sink gets them varies.
+ * The workers run on a pool of their own for every call of generate(), or on a shared executor that outlives the
+ * generator.
+ */
+public class BatchGenerator {
+
+    private static final Logger LOGGER = LogManager.getLogger(BatchGenerator.class);
+
+    private static final int MAX_NR_OF_ATTEMPTS_PER_PUZZLE = 10;
+    private static final int MAX_NR_OF_ATTEMPTS_PER_RATED_PUZZLE = 100;
+
+    private final int nrOfThreads;
+    private final int maxNrOfTries;
+    private final SolverEngine solverEngine;
+    private final boolean allowNonUnique;
+    private final Technique hardestTechnique;
+    private final SplittableRandom seeds;
+    private final ExecutorService sharedExecutor;
+    private final List<Generator> generators = new CopyOnWriteArrayList<>();
+
+    private volatile boolean cancelled;
+
+    public BatchGenerator(int nrOfThreads, int maxNrOfTries, SolverEngine solverEngine, boolean allowNonUnique) {
+        this(nrOfThreads, maxNrOfTries, solverEngine, allowNonUnique, new SplittableRandom().nextLong());
+    }
+
+    public BatchGenerator(int nrOfThreads, int maxNrOfTries, SolverEngine solverEngine, boolean allowNonUnique,
+            long seed) {
+        this(nrOfThreads, maxNrOfTries, solverEngine, allowNonUnique, seed, null);
+    }
+
+    /**
+     * @param hardestTechnique only keep puzzles the Rater rates with exactly this hardest technique, null for all
+     */
+    public BatchGenerator(int nrOfThreads, int maxNrOfTries, SolverEngine solverEngine, boolean allowNonUnique,
+            long seed, Technique hardestTechnique) {
+        this(nrOfThreads, maxNrOfTries, solverEngine, allowNonUnique, seed, hardestTechnique, null);
+    }
+
+    /**
+     * @param sharedExecutor runs the workers instead of a pool of their own, it is not shut down by the generator.
+     *            Workers of several generators queue up if it has fewer threads than they ask for.
+     */
+    public BatchGenerator(ExecutorService sharedExecutor, int nrOfThreads, int maxNrOfTries, SolverEngine solverEngine,
+            boolean allowNonUnique) {
+        this(nrOfThreads, maxNrOfTries, solverEngine, allowNonUnique, new SplittableRandom().nextLong(), null,
+                sharedExecutor);
+    }
+
+    private BatchGenerator(int nrOfThreads, int maxNrOfTries, SolverEngine solverEngine, boolean allowNonUnique,
+            long seed, Technique hardestTechnique, ExecutorService sharedExecutor) {
+        this.nrOfThreads = nrOfThreads;
+        this.maxNrOfTries = maxNrOfTries;
+        this.solverEngine = solverEngine;
+        this.allowNonUnique = allowNonUnique;
+        this.hardestTechnique = hardestTechnique;
+        seeds = new SplittableRandom(seed);
+        this.sharedExecutor = sharedExecutor;
+    }
+
+    /**
+     * Blocks until all puzzles have been generated or the generator has been cancelled. The sink is never called
+     * concurrently.
+     */
+    public Statistics generate(int count, int difficulty, Consumer<Grid> sink) throws InterruptedException {
+        return generate(count, difficulty, 1, sink);
+    }
+
+    /**
+     * Like generate(count, difficulty, sink), but every generated puzzle is followed by nrOfVariantsPerPuzzle - 1
+     * random symmetry transformations of it, which cost no search at all.
+     */
+    public Statistics generate(int count, int difficulty, int nrOfVariantsPerPuzzle, Consumer<Grid> sink)
+            throws InterruptedException {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Generating " + count + " puzzles with difficulty " + difficulty + " and "
+                    + nrOfVariantsPerPuzzle + " variant(s) per puzzle on " + nrOfThreads + " threads");
+        }
+        AtomicInteger nrOfGenerated = new AtomicInteger();
+        AtomicInteger nrOfFailed = new AtomicInteger();
+        Object sinkLock = new Object();
+
+        long start = System.nanoTime();
+        ExecutorService executor = (sharedExecutor != null) ? sharedExecutor
+                : Executors.newFixedThreadPool(nrOfThreads, new NamedThreadFactory("Generator"));
+        List<Future<?>> workers = new ArrayList<>(nrOfThreads);
+        boolean finished = false;
+        try {
+            for (int w = 0; w < nrOfThreads; ++w) {
+                Random random = new Random(seeds.nextLong());
+                int firstSlot = (int) (((long) count * w) / nrOfThreads);
+                int endSlot = (int) (((long) count * (w + 1)) / nrOfThreads);
+                workers.add(executor.submit(() -> {
+                    Generator generator = new Generator(difficulty, maxNrOfTries, solverEngine, allowNonUnique, random);
+                    // Registered before cancelled is read, so cancel() either sees the generator or stops the loop
+                    generators.add(generator);
+                    try {
+                        GridTransform transform = new GridTransform();
+                        Grid seed = new Grid();
+                        int nrOfVariantsLeft = 0;
+                        for (int slot = firstSlot; (slot < endSlot) && !cancelled
+                                && !Thread.currentThread().isInterrupted(); ++slot) {
+                            Grid puzzle;
+                            if (nrOfVariantsLeft > 0) {
+                                puzzle = new Grid();
+                                transform.randomize(random);
+                                transform.apply(seed, puzzle);
+                                --nrOfVariantsLeft;
+                            } else {
+                                puzzle = generateOne(generator);
+                                if (puzzle == null) {
+                                    if (!cancelled) {
+                                        nrOfFailed.incrementAndGet();
+                                    }
+                                    continue;
+                                }
+                                seed.copy(puzzle);
+                                nrOfVariantsLeft = nrOfVariantsPerPuzzle - 1;
+                            }
+                            synchronized (sinkLock) {
+                                if (cancelled) {
+                                    break;
+                                }
+                                sink.accept(puzzle);
+                            }
+                            nrOfGenerated.incrementAndGet();
+                        }
+                    } finally {
+                        generators.remove(generator);
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                awaitWorker(worker, nrOfGenerated, count);
+            }
+            finished = true;
+        } finally {
+            if (!finished) {
+                // The caller has been interrupted or a worker failed, the other workers must not go on
+                cancel();
+            }
+            if (sharedExecutor == null) {
+                executor.shutdownNow();
+            }
+        }
+
+        Statistics statistics = new Statistics(nrOfGenerated.get(), nrOfFailed.get(), System.nanoTime() - start);
+        LOGGER.info("Generated " + statistics.getNrOfPuzzles() + " puzzles (" + statistics.getNrOfFailures()
+                + " failed) in " + (statistics.getNanos() / 1000000) + " ms, "
+                + String.format("%.1f", statistics.getPuzzlesPerSecond()) + " puzzles/s");
+        return statistics;
+    }
+
+    /**
+     * Makes a running generate() return as soon as possible, the sink is not called anymore. A cancelled generator
+     * does not generate again. May be called from any thread, including the sink.
+     */
+    public void cancel() {
+        cancelled = true;
+        for (Generator generator : generators) {
+            generator.cancel();
+        }
+    }
+
+    private static void awaitWorker(Future<?> worker, AtomicInteger nrOfGenerated, int count)
+            throws InterruptedException {
+        while (true) {
+            try {
+                worker.get(1, TimeUnit.SECONDS);
+                return;
+            } catch (TimeoutException ex) {
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Generated " + nrOfGenerated.get() + " of " + count + " puzzles");
+                }
+            } catch (ExecutionException ex) {
+                throw new IllegalStateException("Generating failed: " + ex.getCause().getMessage(), ex.getCause());
+            }
+        }
+    }
+
+    /**
+     * @return a new grid with the puzzle, null if none could be generated
+     */
+    private Grid generateOne(Generator generator) {
+        int maxNrOfAttempts = (hardestTechnique == null) ? MAX_NR_OF_ATTEMPTS_PER_PUZZLE
+                : MAX_NR_OF_ATTEMPTS_PER_RATED_PUZZLE;
+        for (int attempt = 0; attempt < maxNrOfAttempts; ++attempt) {
+            if (generator.generate() && ((hardestTechnique == null)
+                    || (new Rater(generator.getGrid()).rate().getHardestTechnique() == hardestTechnique))) {
+                Grid puzzle = new Grid();
+                puzzle.copy(generator.getGrid());
+                return puzzle;
+            }
+        }
+        return null;
+    }
+
+    public static class Statistics {
+
+        @Getter
+        private final int nrOfPuzzles;
+        @Getter
+        private final int nrOfFailures;
+        @Getter
+        private final long nanos;
+
+        public Statistics(int nrOfPuzzles, int nrOfFailures, long nanos) {
+            this.nrOfPuzzles = nrOfPuzzles;
+            this.nrOfFailures = nrOfFailures;
+            this.nanos = nanos;
+        }
+
+        public double getPuzzlesPerSecond() {
+            return (nanos > 0) ? (nrOfPuzzles * 1e9) / nanos : 0;
+        }
+
+    }
+
+}
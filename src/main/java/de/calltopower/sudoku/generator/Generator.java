@@ -5,192 +5,254 @@
  */
 package de.calltopower.sudoku.generator;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Random;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import de.calltopower.sudoku.solver.Solver;
-import de.calltopower.sudoku.util.Constants;
+import de.calltopower.sudoku.solver.SolverEngine;
+import de.calltopower.sudoku.solver.SudokuSolver;
 import de.calltopower.sudoku.util.Grid;
 import lombok.Getter;
 
+/**
+ * Solution first: a randomized solver fills an empty grid, then clues are dug out in random order as long as the
+ * puzzle stays unique. If no unique puzzle with as few clues as the difficulty asks for turns up within a few dig
+ * attempts, the sparsest one is kept, so the puzzle may have more clues than the difficulty asks for. Only if
+ * non-unique puzzles are explicitly allowed are more clues removed down to the difficulty regardless of uniqueness.
+ *
+ * Solvers and buffers are kept between calls of generate(), so a generator that is reused generates puzzles without
+ * allocating. Each call overwrites the grid of the previous one. A cancel() or deadline stays in effect for all later
+ * calls until reset().
+ */
 public class Generator {
 
     private static final Logger LOGGER = LogManager.getLogger(Generator.class);
 
-    private final Random random = new Random();
+    private static final int MAX_NR_OF_DIG_ATTEMPTS = 5;
+    private static final Grid EMPTY_GRID = new Grid();
+
+    private final Random random;
 
     @Getter
     private final Grid grid;
+    private final Grid puzzle = new Grid();
+    private final int[] cells = new int[Grid.NR_OF_CELLS];
+    private Solver filler;
+    private SudokuSolver solver;
 
     int maxNrOfTries;
     int currNrOfTries;
     int difficulty;
+    SolverEngine solverEngine;
+    boolean allowNonUnique;
+
+    private volatile boolean cancelled;
+    private volatile SudokuSolver currentSolver;
+    private volatile long nrOfNodes;
+    private boolean hasDeadline = false;
+    private long deadline;
 
     public Generator(int difficulty, int maxNrOfTries) {
+        this(difficulty, maxNrOfTries, SolverEngine.BACKTRACKING);
+    }
+
+    public Generator(int difficulty, int maxNrOfTries, SolverEngine solverEngine) {
+        this(difficulty, maxNrOfTries, solverEngine, false);
+    }
+
+    /**
+     * @param allowNonUnique whether to remove clues down to the difficulty even if the puzzle gets more than one
+     *            solution
+     */
+    public Generator(int difficulty, int maxNrOfTries, SolverEngine solverEngine, boolean allowNonUnique) {
+        this(difficulty, maxNrOfTries, solverEngine, allowNonUnique, new Random());
+    }
+
+    public Generator(int difficulty, int maxNrOfTries, SolverEngine solverEngine, boolean allowNonUnique,
+            Random random) {
         if (LOGGER.isDebugEnabled()) {
-            LOGGER.debug("Difficulty: " + difficulty + ", max. no. of tries: " + maxNrOfTries);
+            LOGGER.debug("Difficulty: " + difficulty + ", max. no. of tries: " + maxNrOfTries + ", solver: "
+                    + solverEngine.getDisplayName() + ", allow non-unique: " + allowNonUnique);
         }
         grid = new Grid();
         this.maxNrOfTries = maxNrOfTries;
         this.difficulty = difficulty;
+        this.solverEngine = solverEngine;
+        this.allowNonUnique = allowNonUnique;
+        this.random = random;
         currNrOfTries = 0;
     }
 
-    public boolean generate() {
-        LOGGER.debug("Generating");
-        generate_helper();
-        Solver solver = null;
-        boolean solved = false;
-        boolean solverLogged = false;
-        while ((currNrOfTries <= maxNrOfTries) && !solved) {
-            ++currNrOfTries;
-            generate_helper();
-            Grid g_tmp = new Grid();
-            g_tmp.copy(grid);
-            solver = new Solver(g_tmp, maxNrOfTries, !solverLogged);
-            solverLogged = true;
-            solved = solver.solve(0, 0);
-        }
-        boolean generated = solved && (solver != null) && (currNrOfTries < maxNrOfTries);
-        if (generated) {
-            LOGGER.debug("Grid has been generated.");
-        } else {
-            LOGGER.error("Grid could not be generated.");
-        }
-        return generated;
+    /**
+     * Adds a time budget to the max. no. of tries of every solver: at the given System.nanoTime() digging stops and
+     * the sparsest unique puzzle found so far is kept, so the puzzle may have more clues than the difficulty asks for.
+     * If the deadline passes before the grid has been filled, generate() fails.
+     */
+    public void setDeadline(long deadline) {
+        this.deadline = deadline;
+        hasDeadline = true;
     }
 
-    private void generate_helper() {
-        for (int i = 0; i < 5; ++i) {
-            fillAndRemove();
-        }
+    public void setTimeBudget(long millis) {
+        setDeadline(System.nanoTime() + (millis * 1000000L));
+    }
 
-        while (countFilledFields() > difficulty) {
-            if (random.nextBoolean()) {
-                boolean makeBreak = false;
-                for (int i = 0; (i < Constants.GRID_SIZE) && !makeBreak; ++i) {
-                    for (int j = 0; (j < Constants.GRID_SIZE) && !makeBreak; j++) {
-                        if ((grid.at(i, j) != 0) && (countFilledSmallGridAround(i, j) > 2) && random.nextBoolean()) {
-                            grid.set(i, j, 0);
-                            makeBreak = true;
-                        }
-                    }
-                }
-            } else {
-                boolean makeBreak = false;
-                for (int i = Constants.GRID_SIZE - 1; (i > 0) && !makeBreak; --i) {
-                    for (int j = Constants.GRID_SIZE - 1; (j > 0) && !makeBreak; --j) {
-                        if ((grid.at(i, j) != 0) && (countFilledSmallGridAround(i, j) > 2) && random.nextBoolean()) {
-                            grid.set(i, j, 0);
-                            makeBreak = true;
-                        }
-                    }
-                }
-            }
-        }
+    /**
+     * Clears a previous cancel(), the deadline and the node count, so a cached generator can be used again
+     */
+    public void reset() {
+        cancelled = false;
+        hasDeadline = false;
+        nrOfNodes = 0;
     }
 
-    private void fillAndRemove() {
-        ArrayList<Integer> numbers = new ArrayList<>();
-        int num;
-        for (int i = 1; i <= (Constants.GRID_SIZE * Constants.GRID_SIZE); ++i) {
-            num = random.nextInt(9) + 1;
-            numbers.add(num);
-        }
-        Collections.shuffle(numbers);
-
-        if (random.nextBoolean()) {
-            for (int i = 0; i < Constants.GRID_SIZE; ++i) {
-                for (int j = 0; j < Constants.GRID_SIZE; j++) {
-                    if (grid.at(i, j) == 0) {
-                        grid.set(i, j, numbers.get(i + j));
-                    }
-                }
-            }
+    /**
+     * @return false if no grid could be filled or generating has been cancelled
+     */
+    public boolean generate() {
+        LOGGER.debug("Generating");
+        if (filler == null) {
+            filler = new Solver(EMPTY_GRID, maxNrOfTries, false);
         } else {
-            for (int i = Constants.GRID_SIZE - 1; i > 0; --i) {
-                for (int j = Constants.GRID_SIZE - 1; j > 0; --j) {
-                    if (grid.at(i, j) == 0) {
-                        grid.set(i, j, numbers.get(i + j));
-                    }
-                }
+            filler.reset(EMPTY_GRID);
+        }
+        startSolver(filler);
+        boolean filled = !cancelled && filler.solveRandomly(random);
+        finishSolver(filler);
+        if (!filled) {
+            if (!cancelled) {
+                LOGGER.error("Grid could not be generated.");
             }
+            return false;
         }
 
-        if (random.nextBoolean()) {
-            for (int i = 0; i < Constants.GRID_SIZE; ++i) {
-                for (int j = 0; j < Constants.GRID_SIZE; j++) {
-                    if (!isLegal(i, j)) {
-                        grid.set(i, j, 0);
-                    }
-                }
+        Grid solution = filler.getGrid();
+        grid.copy(solution);
+        int nrOfClues = Grid.NR_OF_CELLS;
+        for (currNrOfTries = 0; (currNrOfTries < MAX_NR_OF_DIG_ATTEMPTS) && (nrOfClues > difficulty)
+                && !deadlineReached(); ++currNrOfTries) {
+            puzzle.copy(solution);
+            int clues = digUnique(currNrOfTries == 0);
+            if (cancelled) {
+                LOGGER.debug("Generating has been cancelled");
+                return false;
             }
-        } else {
-            for (int i = Constants.GRID_SIZE - 1; i > 0; --i) {
-                for (int j = Constants.GRID_SIZE - 1; j > 0; --j) {
-                    if (!isLegal(i, j)) {
-                        grid.set(i, j, 0);
-                    }
-                }
+            if (clues < nrOfClues) {
+                grid.copy(puzzle);
+                nrOfClues = clues;
             }
         }
-    }
+        boolean unique = true;
+        if ((nrOfClues > difficulty) && allowNonUnique) {
+            nrOfClues = dig(nrOfClues);
+            unique = false;
+        }
 
-    private int countFilledSmallGridAround(int i, int j) {
-        int count = 0;
-        int boxRowOffset = (i / 3) * 3;
-        int boxColOffset = (j / 3) * 3;
-        for (int m = 0; m < 3; ++m) {
-            for (int k = 0; k < 3; ++k) {
-                if (grid.at(boxRowOffset + k, boxColOffset + m) != 0) {
-                    ++count;
-                }
-            }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Grid has been generated: " + nrOfClues + " clues, " + (unique ? "unique" : "not unique")
+                    + ", " + currNrOfTries + " dig attempt(s).");
         }
-        return count;
+        return true;
     }
 
-    private int countFilledFields() {
-        int count = 0;
-        for (int i = 0; i < Constants.GRID_SIZE; ++i) {
-            for (int j = 0; j < Constants.GRID_SIZE; j++) {
-                if (grid.at(i, j) != 0) {
-                    ++count;
-                }
+    /**
+     * Removes clues in random order as long as the puzzle keeps a unique solution, stops at the difficulty.
+     *
+     * @return the number of clues left
+     */
+    private int digUnique(boolean logSolver) {
+        int nrOfClues = Grid.NR_OF_CELLS;
+        for (int cell : shuffledCells()) {
+            if ((nrOfClues <= difficulty) || cancelled || deadlineReached()) {
+                break;
+            }
+            int val = puzzle.atCell(cell);
+            puzzle.setCell(cell, 0);
+            if (solver == null) {
+                solver = solverEngine.create(puzzle, maxNrOfTries, logSolver);
+            } else {
+                solver.reset(puzzle);
+            }
+            logSolver = false;
+            startSolver(solver);
+            int nrOfSolutions = cancelled ? -1 : solver.countSolutions(2);
+            finishSolver(solver);
+            // A solver that runs out of tries does not prove uniqueness either
+            if (nrOfSolutions == 1) {
+                --nrOfClues;
+            } else {
+                puzzle.setCell(cell, val);
             }
         }
-        return count;
+        return nrOfClues;
     }
 
-    private boolean isLegal(int i, int j) {
-        for (int k = 0; k < Constants.GRID_SIZE; ++k) {
-            if ((j != k) && (grid.at(i, j) == grid.at(i, k))) {
-                return false;
-            }
+    /**
+     * Makes a running generate() return false as soon as possible. May be called from any thread.
+     */
+    public void cancel() {
+        cancelled = true;
+        SudokuSolver solver = currentSolver;
+        if (solver != null) {
+            solver.cancel();
         }
+    }
 
-        for (int k = 0; k < Constants.GRID_SIZE; ++k) {
-            if ((i != k) && (grid.at(i, j) == grid.at(k, j))) {
-                return false;
-            }
+    /**
+     * @return the search nodes of all solvers so far, may be read from another thread to show progress
+     */
+    public long getNrOfNodes() {
+        SudokuSolver solver = currentSolver;
+        return nrOfNodes + ((solver != null) ? solver.getCurrNrOfTries() : 0);
+    }
+
+    private boolean deadlineReached() {
+        return hasDeadline && ((System.nanoTime() - deadline) >= 0);
+    }
+
+    private void startSolver(SudokuSolver solver) {
+        if (hasDeadline) {
+            solver.setDeadline(deadline);
         }
+        currentSolver = solver;
+    }
 
-        int boxRowOffset = (i / 3) * 3;
-        int boxColOffset = (j / 3) * 3;
-        for (int k = 0; k < 3; ++k) {
-            for (int m = 0; m < 3; ++m) {
-                if ((((boxRowOffset + k) != i) || ((boxColOffset + m) != j))
-                        && (grid.at(boxRowOffset + k, boxColOffset + m) == grid.at(i, j))) {
-                    return false;
-                }
+    private void finishSolver(SudokuSolver solver) {
+        currentSolver = null;
+        nrOfNodes += solver.getCurrNrOfTries();
+    }
+
+    /**
+     * Removes random clues from the grid down to the difficulty, regardless of uniqueness.
+     *
+     * @return the number of clues left
+     */
+    private int dig(int nrOfClues) {
+        for (int cell : shuffledCells()) {
+            if (nrOfClues <= difficulty) {
+                break;
+            }
+            if (grid.atCell(cell) != 0) {
+                grid.setCell(cell, 0);
+                --nrOfClues;
             }
         }
+        return nrOfClues;
+    }
 
-        return true;
+    private int[] shuffledCells() {
+        for (int cell = 0; cell < Grid.NR_OF_CELLS; ++cell) {
+            cells[cell] = cell;
+        }
+        for (int k = Grid.NR_OF_CELLS - 1; k > 0; --k) {
+            int r = random.nextInt(k + 1);
+            int tmp = cells[k];
+            cells[k] = cells[r];
+            cells[r] = tmp;
+        }
+        return cells;
     }
 
 }
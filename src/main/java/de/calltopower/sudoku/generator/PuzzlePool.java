@@ -0,0 +1,257 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.generator;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.calltopower.sudoku.solver.SolverEngine;
+import de.calltopower.sudoku.util.FileUtils;
+import de.calltopower.sudoku.util.Grid;
+import de.calltopower.sudoku.util.GridTransform;
+
+/**
+ * Keeps a number of pre-generated puzzles per difficulty. A low priority daemon thread tops every difficulty up to the
+ * watermark, so taking a puzzle is usually just a queue poll. Optionally the pool is saved to and restored from a file
+ * (one "difficulty:puzzle" line per puzzle).
+ *
+ * The last generated puzzles of every difficulty are kept as seeds. When a difficulty runs dry, a random symmetry
+ * transformation of a seed is served instead, so the pool never has to make a caller wait for the generator.
+ */
+public class PuzzlePool {
+
+    private static final Logger LOGGER = LogManager.getLogger(PuzzlePool.class);
+
+    private static final int MAX_NR_OF_SEEDS = 50;
+
+    private final Map<Integer, Queue<Grid>> pools = new TreeMap<>();
+    private final Map<Integer, AtomicInteger> sizes = new TreeMap<>();
+    private final Map<Integer, List<Grid>> seeds = new TreeMap<>();
+    private final Map<Integer, Generator> generators = new TreeMap<>();
+    private final GridTransform transform = new GridTransform();
+    private final Random random = new Random();
+    private final int watermark;
+    private final String fileName;
+    private final Object refillLock = new Object();
+
+    private volatile int maxNrOfTries;
+    private volatile SolverEngine solverEngine;
+    private Thread refillThread = null;
+    private volatile boolean running = false;
+    private volatile Generator activeGenerator = null;
+
+    /**
+     * @param fileName the file to persist the pool to, null for an in-memory pool only
+     */
+    public PuzzlePool(int[] difficulties, int watermark, int maxNrOfTries, SolverEngine solverEngine,
+            String fileName) {
+        for (int difficulty : difficulties) {
+            pools.put(difficulty, new ConcurrentLinkedQueue<>());
+            sizes.put(difficulty, new AtomicInteger());
+            seeds.put(difficulty, new ArrayList<>());
+        }
+        this.watermark = watermark;
+        this.maxNrOfTries = maxNrOfTries;
+        this.solverEngine = solverEngine;
+        this.fileName = fileName;
+    }
+
+    /**
+     * Generates the next puzzles with this engine and max. no. of tries, the puzzles already in the pool are kept
+     */
+    public void setSolver(SolverEngine solverEngine, int maxNrOfTries) {
+        this.solverEngine = solverEngine;
+        this.maxNrOfTries = maxNrOfTries;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        load();
+        running = true;
+        refillThread = new Thread(this::refill, "PuzzlePool-Refill");
+        refillThread.setDaemon(true);
+        refillThread.setPriority(Thread.MIN_PRIORITY);
+        refillThread.start();
+    }
+
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        Generator generator = activeGenerator;
+        if (generator != null) {
+            generator.cancel();
+        }
+        refillThread.interrupt();
+        try {
+            // The refill thread must not offer puzzles any more while the pool is saved
+            refillThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        refillThread = null;
+        save();
+    }
+
+    public int size(int difficulty) {
+        AtomicInteger size = sizes.get(difficulty);
+        return (size != null) ? size.get() : 0;
+    }
+
+    /**
+     * @return a pre-generated puzzle, a variant of a seed if there is none, or null if there are no seeds yet
+     */
+    public Grid poll(int difficulty) {
+        Queue<Grid> pool = pools.get(difficulty);
+        if (pool == null) {
+            return null;
+        }
+        Grid puzzle = pool.poll();
+        if (puzzle != null) {
+            sizes.get(difficulty).decrementAndGet();
+        } else {
+            puzzle = deriveFromSeed(difficulty);
+        }
+        synchronized (refillLock) {
+            refillLock.notifyAll();
+        }
+        return puzzle;
+    }
+
+    private void offer(int difficulty, Grid puzzle) {
+        pools.get(difficulty).offer(puzzle);
+        sizes.get(difficulty).incrementAndGet();
+
+        Grid seed = new Grid();
+        seed.copy(puzzle);
+        synchronized (seeds) {
+            List<Grid> seedList = seeds.get(difficulty);
+            if (seedList.size() < MAX_NR_OF_SEEDS) {
+                seedList.add(seed);
+            } else {
+                seedList.set(random.nextInt(MAX_NR_OF_SEEDS), seed);
+            }
+        }
+    }
+
+    private Grid deriveFromSeed(int difficulty) {
+        synchronized (seeds) {
+            List<Grid> seedList = seeds.get(difficulty);
+            if (seedList.isEmpty()) {
+                return null;
+            }
+            Grid variant = new Grid();
+            transform.randomize(random);
+            transform.apply(seedList.get(random.nextInt(seedList.size())), variant);
+            LOGGER.debug("Serving a transformed seed puzzle");
+            return variant;
+        }
+    }
+
+    private void refill() {
+        LOGGER.debug("Refill thread started");
+        while (running) {
+            boolean generated = false;
+            for (int difficulty : pools.keySet()) {
+                if (running && (size(difficulty) < watermark)) {
+                    Generator generator = generator(difficulty);
+                    generator.reset();
+                    // Published before running is read again, so stop() either cancels it or it is not started
+                    activeGenerator = generator;
+                    boolean ok = running && generator.generate();
+                    activeGenerator = null;
+                    if (ok) {
+                        Grid puzzle = new Grid();
+                        puzzle.copy(generator.getGrid());
+                        offer(difficulty, puzzle);
+                        generated = true;
+                    }
+                }
+            }
+            if (!generated) {
+                synchronized (refillLock) {
+                    try {
+                        refillLock.wait(1000);
+                    } catch (InterruptedException e) {
+                        break;
+                    }
+                }
+            }
+        }
+        LOGGER.debug("Refill thread stopped");
+    }
+
+    /**
+     * @return the cached generator of the difficulty, a new one if the engine or max. no. of tries has changed
+     */
+    private Generator generator(int difficulty) {
+        SolverEngine engine = solverEngine;
+        int tries = maxNrOfTries;
+        Generator generator = generators.get(difficulty);
+        if ((generator == null) || (generator.solverEngine != engine) || (generator.maxNrOfTries != tries)) {
+            generator = new Generator(difficulty, tries, engine);
+            generators.put(difficulty, generator);
+        }
+        return generator;
+    }
+
+    private void load() {
+        if ((fileName == null) || !FileUtils.fileExists(fileName)) {
+            return;
+        }
+        int nrOfPuzzles = 0;
+        for (String line : FileUtils.readLinesFromFile(fileName)) {
+            int sep = line.indexOf(':');
+            if (sep <= 0) {
+                continue;
+            }
+            try {
+                int difficulty = Integer.parseInt(line.substring(0, sep));
+                Grid puzzle = new Grid();
+                if (pools.containsKey(difficulty) && puzzle.parse(line, sep + 1, line.length())) {
+                    offer(difficulty, puzzle);
+                    ++nrOfPuzzles;
+                }
+            } catch (NumberFormatException ex) {
+                LOGGER.warn("Skipping invalid line in puzzle pool file: " + line);
+            }
+        }
+        LOGGER.info("Loaded " + nrOfPuzzles + " puzzles from '" + fileName + "'");
+    }
+
+    private void save() {
+        if (fileName == null) {
+            return;
+        }
+        File dir = new File(fileName).getAbsoluteFile().getParentFile();
+        if ((dir != null) && !dir.exists() && !dir.mkdirs()) {
+            LOGGER.error("Could not create directory '" + dir + "'");
+            return;
+        }
+        StringBuilder cont = new StringBuilder();
+        for (Map.Entry<Integer, Queue<Grid>> pool : pools.entrySet()) {
+            for (Grid puzzle : pool.getValue()) {
+                puzzle.format(cont.append(pool.getKey()).append(':'), false).append('\n');
+            }
+        }
+        FileUtils.writeToFile(fileName, cont.toString());
+    }
+
+}
@@ -6,7 +6,6 @@
 package de.calltopower.sudoku.gui;
 
 import java.awt.Color;
-import java.awt.Component;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.awt.event.WindowAdapter;
@@ -18,18 +17,31 @@ import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.Random;
+import java.util.function.Consumer;
 
 import javax.swing.ImageIcon;
+import javax.swing.JComponent;
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
+import javax.swing.JMenuItem;
 import javax.swing.JOptionPane;
+import javax.swing.KeyStroke;
+import javax.swing.SwingUtilities;
 import javax.swing.filechooser.FileFilter;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import de.calltopower.sudoku.generator.Generator;
-import de.calltopower.sudoku.solver.Solver;
+import de.calltopower.sudoku.generator.PuzzlePool;
+import de.calltopower.sudoku.solver.Propagator;
+import de.calltopower.sudoku.solver.Rater;
+import de.calltopower.sudoku.solver.SolverEngine;
+import de.calltopower.sudoku.solver.SudokuSolver;
+import de.calltopower.sudoku.task.SudokuTask;
+import de.calltopower.sudoku.task.TaskListener;
+import de.calltopower.sudoku.task.TaskProgress;
+import de.calltopower.sudoku.task.TaskRunner;
 import de.calltopower.sudoku.util.Constants;
 import de.calltopower.sudoku.util.FileUtils;
 import de.calltopower.sudoku.util.Grid;
@@ -47,11 +59,17 @@ public class SudokuUI extends javax.swing.JFrame {
     private int maxNrOfTries = Constants.DEFAULT_MAX_NR_OF_TRIES;
     private boolean actionRunning = false;
     private Grid grid = null;
-    private Grid grid_hidden = null;
+    private final Grid checkedGrid = new Grid();
     private GridUI gridUI = null;
     private int difficulty = Constants.MAX_NR_OF_GENERATED_NUMBERS_NORMAL;
+    private SolverEngine solverEngine = SolverEngine.BACKTRACKING;
+    private PuzzlePool puzzlePool = null;
     private boolean clickedQuit = false;
     private ImageIcon icon = null;
+    private final TaskRunner taskRunner = new TaskRunner("SudokuUI-Task", 1, SwingUtilities::invokeLater,
+            Constants.MS_TASK_PROGRESS_INTERVAL);
+    private volatile SudokuTask<?> runningTask = null;
+    private JMenuItem menu_abort = null;
 
     public SudokuUI() {
         LOGGER.debug("Initializing grid and grid UI");
@@ -72,6 +90,15 @@ public class SudokuUI extends javax.swing.JFrame {
             LOGGER.error("Could not load image file '" + Constants.IMAGE_ICON + "'");
         }
 
+        LOGGER.debug("Starting puzzle pool");
+        puzzlePool = new PuzzlePool(
+                new int[] { Constants.MAX_NR_OF_GENERATED_NUMBERS_EASY, Constants.MAX_NR_OF_GENERATED_NUMBERS_NORMAL,
+                        Constants.MAX_NR_OF_GENERATED_NUMBERS_HARD, Constants.MAX_NR_OF_GENERATED_NUMBERS_VERYHARD },
+                Constants.PUZZLE_POOL_WATERMARK, maxNrOfTries, solverEngine,
+                new File(Constants.PUZZLE_POOL_DIRECTORY, Constants.PUZZLE_POOL_FILENAME).getPath());
+        puzzlePool.start();
+
+        setSolverEngine(SolverEngine.BACKTRACKING);
         setDifficulty(Constants.MAX_NR_OF_GENERATED_NUMBERS_NORMAL);
         menu_settings_maxDepth.setText("Max. depth (currently " + maxNrOfTries + ")");
 
@@ -97,6 +124,9 @@ public class SudokuUI extends javax.swing.JFrame {
         if (JOptionPane.showConfirmDialog(this, "Cancel current Sudoku and quit?", "Quit Sudoku",
                 JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE, icon) == JOptionPane.YES_OPTION) {
             LOGGER.info("Clicked 'Yes'. Quitting...");
+            abortTask();
+            taskRunner.shutdown();
+            puzzlePool.stop();
             this.dispose();
             System.exit(0);
         } else {
@@ -151,6 +181,13 @@ public class SudokuUI extends javax.swing.JFrame {
         panel_3_1.setBorder(javax.swing.BorderFactory.createLineBorder(colorBorder));
         panel_3_2.setBorder(javax.swing.BorderFactory.createLineBorder(colorBorder));
         panel_3_3.setBorder(javax.swing.BorderFactory.createLineBorder(colorBorder));
+
+        menu_abort = new JMenuItem("Abort");
+        menu_abort.addActionListener(e -> abortTask());
+        menu_abort.setVisible(false);
+        menubar.add(menu_abort);
+        getRootPane().registerKeyboardAction(e -> abortTask(), KeyStroke.getKeyStroke(KeyEvent.VK_ESCAPE, 0),
+                JComponent.WHEN_IN_FOCUSED_WINDOW);
     }
 
     private boolean checkAndWarnIfFilled() {
@@ -182,42 +219,39 @@ public class SudokuUI extends javax.swing.JFrame {
             return;
         }
 
-        try {
-            LOGGER.debug("Trying to start Thread...");
-            final Component mainComponent = this;
-            new Thread() {
-                @Override
-                public void run() {
-                    LOGGER.debug("Disabling all actions");
-                    enableAllActions(false);
-                    LOGGER.debug("Clearing grid");
-                    gridUI.clearGrid(grid);
-
-                    try {
-                        Generator generator = new Generator(difficulty, maxNrOfTries);
-                        if (generator.generate()) {
-                            grid.copy(generator.getGrid());
-                            gridUI.writeGrid(grid);
-                            gridUI.fillFilled(false, true);
-                        } else {
-                            LOGGER.warn(
-                                    "No Sudoku could be generated.\\nPlease try again with an increased max. depth.");
-                            JOptionPane.showMessageDialog(mainComponent,
-                                    "No Sudoku could be generated.\nPlease try again with an increased max. depth.",
-                                    "Sudoku not generated", JOptionPane.ERROR_MESSAGE, icon);
-                        }
-                    } catch (Exception ex) {
-                        LOGGER.error("Exception while generating Sudoku", ex);
-                    } finally {
-                        enableAllActions(true);
-                        requestMainFocus();
-                        LOGGER.info("Done generating a new Sudoku");
+        LOGGER.debug("Clearing grid");
+        gridUI.clearGrid(grid);
+        final int _difficulty = difficulty;
+        final int _maxNrOfTries = maxNrOfTries;
+        final SolverEngine _solverEngine = solverEngine;
+        runTask("Generating", new SudokuTask<Grid>() {
+            @Override
+            protected Grid run() {
+                Grid puzzle = puzzlePool.poll(_difficulty);
+                if (puzzle == null) {
+                    LOGGER.debug("Puzzle pool is empty, generating");
+                    Generator generator = observe(new Generator(_difficulty, _maxNrOfTries, _solverEngine));
+                    if (generator.generate()) {
+                        puzzle = generator.getGrid();
                     }
                 }
-            }.start();
-        } catch (Exception e) {
-            LOGGER.error("Exception while threading", e);
-        }
+                if ((puzzle != null) && LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Rating: " + new Rater(puzzle).rate());
+                }
+                return puzzle;
+            }
+        }, puzzle -> {
+            if (puzzle != null) {
+                grid.copy(puzzle);
+                gridUI.writeGrid(grid);
+                gridUI.fillFilled(false, true);
+            } else {
+                LOGGER.warn("No Sudoku could be generated.\\nPlease try again with an increased max. depth.");
+                JOptionPane.showMessageDialog(this,
+                        "No Sudoku could be generated.\nPlease try again with an increased max. depth.",
+                        "Sudoku not generated", JOptionPane.ERROR_MESSAGE, icon);
+            }
+        });
     }
 
     private void step() {
@@ -228,81 +262,85 @@ public class SudokuUI extends javax.swing.JFrame {
             return;
         }
 
-        try {
-            final Component mainComponent = this;
-            new Thread() {
-                @Override
-                public void run() {
-                    enableAllActions(false);
-                    try {
-                        if (grid_hidden == null) {
-                            grid_hidden = new Grid();
-                        }
-                        gridUI.getGrid(grid_hidden);
-                        Solver solver = new Solver(grid_hidden, maxNrOfTries);
-                        if (grid_hidden.isCompletelyFilled()) {
-                            LOGGER.info("Grid is completely filled");
-                            if (!solver.checkGrid(grid_hidden)) {
-                                LOGGER.info("The solution to this Sudoku is not correct.");
-                                JOptionPane.showMessageDialog(mainComponent,
-                                        "The solution to this Sudoku is not correct.", "Solution not correct",
-                                        JOptionPane.ERROR_MESSAGE, icon);
-                            } else {
-                                LOGGER.info("This Sudoku has been correctly solved.");
-                                JOptionPane.showMessageDialog(mainComponent, "This Sudoku has been correctly solved.",
-                                        "Sudoku solved", JOptionPane.INFORMATION_MESSAGE, icon);
-                                gridUI.fillFilled(false, false);
-                            }
-                        } else {
-                            LOGGER.info("Grid is not completely filled");
-                            if (solver.solve(0, 0)) {
-                                grid_hidden.copy(solver.getGrid());
-                                boolean makeBreak = false;
-                                int curr_depth = 0;
-                                int rand_i;
-                                int rand_j;
-                                while ((curr_depth < maxNrOfTries) && !makeBreak) {
-                                    rand_i = random.nextInt(9);
-                                    rand_j = random.nextInt(9);
-                                    ++curr_depth;
-                                    if (grid.at(rand_i, rand_j) == 0) {
-                                        grid.set(rand_i, rand_j, grid_hidden.at(rand_i, rand_j));
-                                        gridUI.set(rand_i, rand_j, grid.at(rand_i, rand_j), colorStep);
-                                        makeBreak = true;
-                                    }
-                                }
-                                if (!makeBreak) {
-                                    for (int i = 0; (i < 9) && !makeBreak; ++i) {
-                                        for (int j = 0; (j < 9) && !makeBreak; ++j) {
-                                            if (grid.at(i, j) == 0) {
-                                                grid.set(i, j, grid_hidden.at(i, j));
-                                                gridUI.set(i, j, grid.at(i, j));
-                                                makeBreak = true;
-                                            }
-                                        }
-                                    }
-                                }
-                            } else {
-                                LOGGER.warn(
-                                        "This Sudoku could not be stepped. You could try again with an increased max. depth.");
-                                JOptionPane.showMessageDialog(mainComponent,
-                                        "This Sudoku could not be stepped.\nYou could try again with an increased max. depth.",
-                                        "Sudoku not stepped", JOptionPane.ERROR_MESSAGE, icon);
-                            }
+        final Grid puzzle = new Grid();
+        gridUI.getGrid(puzzle);
+        if (puzzle.isCompletelyFilled()) {
+            LOGGER.info("Grid is completely filled");
+            if (!SudokuSolver.checkGrid(puzzle)) {
+                LOGGER.info("The solution to this Sudoku is not correct.");
+                JOptionPane.showMessageDialog(this, "The solution to this Sudoku is not correct.",
+                        "Solution not correct", JOptionPane.ERROR_MESSAGE, icon);
+            } else {
+                LOGGER.info("This Sudoku has been correctly solved.");
+                JOptionPane.showMessageDialog(this, "This Sudoku has been correctly solved.", "Sudoku solved",
+                        JOptionPane.INFORMATION_MESSAGE, icon);
+                gridUI.fillFilled(false, false);
+            }
+            requestMainFocus();
+            return;
+        }
+
+        LOGGER.info("Grid is not completely filled");
+        final Grid solution = new Grid();
+        final int _maxNrOfTries = maxNrOfTries;
+        final SolverEngine _solverEngine = solverEngine;
+        runTask("Stepping", new SudokuTask<Integer>() {
+            /**
+             * @return the cell of a deduced value, -1 if there is none, or null if the Sudoku could not be solved
+             */
+            @Override
+            protected Integer run() {
+                SudokuSolver solver = observe(_solverEngine.create(puzzle, _maxNrOfTries));
+                if (!solver.solve()) {
+                    return null;
+                }
+                solution.copy(solver.getGrid());
+                return new Propagator(puzzle).step();
+            }
+        }, cell -> {
+            if (cell == null) {
+                LOGGER.warn("This Sudoku could not be stepped. You could try again with an increased max. depth.");
+                JOptionPane.showMessageDialog(this,
+                        "This Sudoku could not be stepped.\nYou could try again with an increased max. depth.",
+                        "Sudoku not stepped", JOptionPane.ERROR_MESSAGE, icon);
+                return;
+            }
+            boolean makeBreak = false;
+            if (cell != -1) {
+                int i = cell / Constants.GRID_SIZE;
+                int j = cell % Constants.GRID_SIZE;
+                if (grid.at(i, j) == 0) {
+                    LOGGER.debug("Stepping a deduced value");
+                    grid.set(i, j, solution.at(i, j));
+                    gridUI.set(i, j, grid.at(i, j), colorStep);
+                    makeBreak = true;
+                }
+            }
+            int curr_depth = 0;
+            int rand_i;
+            int rand_j;
+            while ((curr_depth < maxNrOfTries) && !makeBreak) {
+                rand_i = random.nextInt(9);
+                rand_j = random.nextInt(9);
+                ++curr_depth;
+                if (grid.at(rand_i, rand_j) == 0) {
+                    grid.set(rand_i, rand_j, solution.at(rand_i, rand_j));
+                    gridUI.set(rand_i, rand_j, grid.at(rand_i, rand_j), colorStep);
+                    makeBreak = true;
+                }
+            }
+            if (!makeBreak) {
+                for (int i = 0; (i < 9) && !makeBreak; ++i) {
+                    for (int j = 0; (j < 9) && !makeBreak; ++j) {
+                        if (grid.at(i, j) == 0) {
+                            grid.set(i, j, solution.at(i, j));
+                            gridUI.set(i, j, grid.at(i, j));
+                            makeBreak = true;
                         }
-                    } catch (Exception ex) {
-                        LOGGER.error("Exception while stepping", ex);
-                    } finally {
-                        grid_hidden = null;
-                        enableAllActions(true);
-                        requestMainFocus();
-                        LOGGER.info("Done stepping");
                     }
                 }
-            }.start();
-        } catch (Exception e) {
-            LOGGER.error("Exception while threading", e);
-        }
+            }
+        });
     }
 
     private void enableAllActions(boolean enable) {
@@ -310,6 +348,86 @@ public class SudokuUI extends javax.swing.JFrame {
         menu_jsudoku.setEnabled(enable);
         menu_options.setEnabled(enable);
         menu_settings.setEnabled(enable);
+        menu_abort.setVisible(!enable);
+    }
+
+    private <T> void runTask(final String action, final SudokuTask<T> task, final Consumer<T> onDone) {
+        runTask(action, task, onDone, null);
+    }
+
+    /**
+     * Runs the task on the task runner with all actions disabled, onDone or onCancel (if not null) is called on the
+     * event dispatch thread. The title shows the progress in the meantime, Esc or the abort menu cancel the task.
+     */
+    private <T> void runTask(final String action, final SudokuTask<T> task, final Consumer<T> onDone,
+            final Runnable onCancel) {
+        LOGGER.debug("Disabling all actions");
+        enableAllActions(false);
+        runningTask = task;
+        final String title = getTitle();
+        taskRunner.submit(task, Constants.MS_TASK_TIMEOUT, new TaskListener<T>() {
+            @Override
+            public void done(T result) {
+                try {
+                    onDone.accept(result);
+                } finally {
+                    finishTask(action, title);
+                }
+            }
+
+            @Override
+            public void cancelled(boolean timedOut) {
+                try {
+                    if (timedOut) {
+                        LOGGER.warn(action + " has been aborted after " + (Constants.MS_TASK_TIMEOUT / 1000)
+                                + " seconds.");
+                        JOptionPane.showMessageDialog(SudokuUI.this,
+                                action + " has been aborted after " + (Constants.MS_TASK_TIMEOUT / 1000)
+                                        + " seconds.\nYou could try again with a decreased max. depth.",
+                                action + " aborted", JOptionPane.ERROR_MESSAGE, icon);
+                    } else {
+                        LOGGER.info(action + " has been aborted");
+                    }
+                    if (onCancel != null) {
+                        onCancel.run();
+                    }
+                } finally {
+                    finishTask(action, title);
+                }
+            }
+
+            @Override
+            public void failed(Exception ex) {
+                try {
+                    LOGGER.error(action + " failed: " + ex.getMessage(), ex);
+                    JOptionPane.showMessageDialog(SudokuUI.this, action + " failed:\n" + ex.getMessage(),
+                            action + " failed", JOptionPane.ERROR_MESSAGE, icon);
+                } finally {
+                    finishTask(action, title);
+                }
+            }
+
+            @Override
+            public void progress(TaskProgress progress) {
+                setTitle(title + " - " + action + ": " + progress + " (Esc to abort)");
+            }
+        });
+    }
+
+    private void finishTask(String action, String title) {
+        runningTask = null;
+        setTitle(title);
+        enableAllActions(true);
+        requestMainFocus();
+        LOGGER.info("Done " + action.toLowerCase());
+    }
+
+    private void abortTask() {
+        SudokuTask<?> task = runningTask;
+        if (task != null) {
+            LOGGER.info("Aborting");
+            task.cancel();
+        }
     }
 
     private void checkWOErrors() {
@@ -320,37 +438,12 @@ public class SudokuUI extends javax.swing.JFrame {
             return;
         }
 
-        try {
-            final Component mainComponent = this;
-            new Thread() {
-                @Override
-                public void run() {
-                    enableAllActions(false);
-                    try {
-                        if (grid_hidden == null) {
-                            grid_hidden = new Grid();
-                        }
-                        gridUI.getGrid(grid_hidden);
-                        Solver solver = new Solver(grid_hidden, maxNrOfTries);
-
-                        if (solver.checkGridValidity(grid_hidden) && solver.solve(0, 0)
-                                && grid_hidden.isCompletelyFilled()) {
-                            LOGGER.info("This Sudoku has been correctly solved.");
-                            JOptionPane.showMessageDialog(mainComponent, "This Sudoku has been correctly solved.",
-                                    "Sudoku solved", JOptionPane.INFORMATION_MESSAGE, icon);
-                        }
-                    } catch (Exception ex) {
-                        LOGGER.error("Exception while checking (w/o errors)", ex);
-                    } finally {
-                        grid_hidden = null;
-                        enableAllActions(true);
-                        requestMainFocus();
-                        LOGGER.info("Done checking (w/o errors)");
-                    }
-                }
-            }.start();
-        } catch (Exception e) {
-            LOGGER.error("Exception while threading", e);
+        // Runs on every key release, so no task: a completely filled grid without errors is solved, no search needed
+        gridUI.getGrid(checkedGrid);
+        if (checkedGrid.isCompletelyFilled() && SudokuSolver.checkGridValidity(checkedGrid)) {
+            LOGGER.info("This Sudoku has been correctly solved.");
+            JOptionPane.showMessageDialog(this, "This Sudoku has been correctly solved.", "Sudoku solved",
+                    JOptionPane.INFORMATION_MESSAGE, icon);
         }
     }
 
@@ -362,55 +455,39 @@ public class SudokuUI extends javax.swing.JFrame {
             return;
         }
 
-        try {
-            final Component mainComponent = this;
-            new Thread() {
-                @Override
-                public void run() {
-                    enableAllActions(false);
-                    try {
-                        if (grid_hidden == null) {
-                            grid_hidden = new Grid();
-                        }
-                        gridUI.getGrid(grid_hidden);
-                        Solver solver = new Solver(grid_hidden, maxNrOfTries);
-
-                        if (!solver.checkGridValidity(grid_hidden)) {
-                            JOptionPane.showMessageDialog(mainComponent, "This Sudoku contains one or more errors.",
-                                    "Solution not correct", JOptionPane.ERROR_MESSAGE, icon);
-                        } else {
-                            if (solver.solve(0, 0)) {
-                                if (grid_hidden.isCompletelyFilled()) {
-                                    LOGGER.info("This Sudoku has been correctly solved.");
-                                    JOptionPane.showMessageDialog(mainComponent,
-                                            "This Sudoku has been correctly solved.", "Sudoku solved",
-                                            JOptionPane.INFORMATION_MESSAGE, icon);
-                                } else {
-                                    LOGGER.info("This Sudoku is valid.");
-                                    JOptionPane.showMessageDialog(mainComponent, "This Sudoku is valid.",
-                                            "Sudoku valid", JOptionPane.INFORMATION_MESSAGE, icon);
-                                }
-                            } else {
-                                LOGGER.info(
-                                        "This Sudoku is not valid. You could try again with an increased max. depth.");
-                                JOptionPane.showMessageDialog(mainComponent,
-                                        "This Sudoku is not valid.\n\nYou could try again with an increased max. depth.",
-                                        "Sudoku not valid", JOptionPane.ERROR_MESSAGE, icon);
-                            }
-                        }
-                    } catch (Exception ex) {
-                        LOGGER.error("Exception while checking", ex);
-                    } finally {
-                        grid_hidden = null;
-                        enableAllActions(true);
-                        requestMainFocus();
-                        LOGGER.info("Done checking");
-                    }
-                }
-            }.start();
-        } catch (Exception e) {
-            LOGGER.error("Exception while threading", e);
+        final Grid puzzle = new Grid();
+        gridUI.getGrid(puzzle);
+        final SudokuSolver solver = solverEngine.create(puzzle, maxNrOfTries);
+        if (!SudokuSolver.checkGridValidity(puzzle)) {
+            JOptionPane.showMessageDialog(this, "This Sudoku contains one or more errors.", "Solution not correct",
+                    JOptionPane.ERROR_MESSAGE, icon);
+            requestMainFocus();
+            return;
         }
+
+        runTask("Checking", new SudokuTask<Boolean>() {
+            @Override
+            protected Boolean run() {
+                return observe(solver).solve();
+            }
+        }, solved -> {
+            if (solved) {
+                if (puzzle.isCompletelyFilled()) {
+                    LOGGER.info("This Sudoku has been correctly solved.");
+                    JOptionPane.showMessageDialog(this, "This Sudoku has been correctly solved.", "Sudoku solved",
+                            JOptionPane.INFORMATION_MESSAGE, icon);
+                } else {
+                    LOGGER.info("This Sudoku is valid.");
+                    JOptionPane.showMessageDialog(this, "This Sudoku is valid.", "Sudoku valid",
+                            JOptionPane.INFORMATION_MESSAGE, icon);
+                }
+            } else {
+                LOGGER.info("This Sudoku is not valid. You could try again with an increased max. depth.");
+                JOptionPane.showMessageDialog(this,
+                        "This Sudoku is not valid.\n\nYou could try again with an increased max. depth.",
+                        "Sudoku not valid", JOptionPane.ERROR_MESSAGE, icon);
+            }
+        });
     }
 
     private void solve() {
@@ -425,59 +502,47 @@ public class SudokuUI extends javax.swing.JFrame {
             LOGGER.info("The grid is not valid...");
         }
 
-        try {
-            final Component mainComponent = this;
-            new Thread() {
-                @Override
-                public void run() {
-                    enableAllActions(false);
-                    gridUI.fillFilled(false, false);
-
-                    try {
-                        gridUI.getGrid(grid);
-                        Solver solver = new Solver(grid, maxNrOfTries);
-
-                        if (!solver.checkGridValidity(grid)) {
-                            LOGGER.info("This Sudoku contains one or more errors.");
-                            JOptionPane.showMessageDialog(mainComponent, "This Sudoku contains one or more errors.\n",
-                                    "Solution not correct", JOptionPane.ERROR_MESSAGE, icon);
-                            gridUI.fillFilled(true, true);
-                        } else {
-                            if (grid.isCompletelyFilled()) {
-                                LOGGER.info("This Sudoku has already been solved correctly.");
-                                JOptionPane.showMessageDialog(mainComponent,
-                                        "This Sudoku has already been solved correctly.\n", "Sudoku already solved",
-                                        JOptionPane.INFORMATION_MESSAGE, icon);
-                            } else {
-                                if (solver.solve(0, 0)) {
-                                    grid.copy(solver.getGrid());
-                                    gridUI.writeGrid(grid);
-                                } else {
-                                    LOGGER.info(
-                                            "This Sudoku could not be solved. You could edit it or try again with an increased max. depth.");
-                                    gridUI.getGrid(grid);
-                                    JOptionPane.showMessageDialog(mainComponent,
-                                            "This Sudoku could not be solved.\nYou could edit it or try again with an increased max. depth.",
-                                            "Sudoku not solved", JOptionPane.ERROR_MESSAGE, icon);
-                                    gridUI.fillFilled(true, true);
-                                }
-                            }
-                        }
-                    } catch (Exception ex) {
-                        LOGGER.error("Exception while solving", ex);
-                    } finally {
-                        enableAllActions(true);
-                        requestMainFocus();
-                        LOGGER.info("Done solving");
-                    }
-                }
-            }.start();
-        } catch (Exception e) {
-            LOGGER.error("Exception while threading", e);
+        gridUI.fillFilled(false, false);
+        gridUI.getGrid(grid);
+        final SudokuSolver solver = solverEngine.create(grid, maxNrOfTries);
+        if (!SudokuSolver.checkGridValidity(grid)) {
+            LOGGER.info("This Sudoku contains one or more errors.");
+            JOptionPane.showMessageDialog(this, "This Sudoku contains one or more errors.\n",
+                    "Solution not correct", JOptionPane.ERROR_MESSAGE, icon);
+            gridUI.fillFilled(true, true);
+            requestMainFocus();
+            return;
+        }
+        if (grid.isCompletelyFilled()) {
+            LOGGER.info("This Sudoku has already been solved correctly.");
+            JOptionPane.showMessageDialog(this, "This Sudoku has already been solved correctly.\n",
+                    "Sudoku already solved", JOptionPane.INFORMATION_MESSAGE, icon);
+            requestMainFocus();
+            return;
         }
+
+        runTask("Solving", new SudokuTask<Boolean>() {
+            @Override
+            protected Boolean run() {
+                return observe(solver).solve();
+            }
+        }, solved -> {
+            if (solved) {
+                grid.copy(solver.getGrid());
+                gridUI.writeGrid(grid);
+            } else {
+                LOGGER.info(
+                        "This Sudoku could not be solved. You could edit it or try again with an increased max. depth.");
+                gridUI.getGrid(grid);
+                JOptionPane.showMessageDialog(this,
+                        "This Sudoku could not be solved.\nYou could edit it or try again with an increased max. depth.",
+                        "Sudoku not solved", JOptionPane.ERROR_MESSAGE, icon);
+                gridUI.fillFilled(true, true);
+            }
+        }, () -> gridUI.fillFilled(true, true));
     }
 
-    private void setDifficulty(int _difficulty) {
+    private ImageIcon loadSelectedImageIcon() {
         URL selectedIconUrl = getClass().getClassLoader().getResource(Constants.IMAGE_SELECTED);
         ImageIcon selectedImageIcon = null;
         if (selectedIconUrl != null) {
@@ -485,6 +550,30 @@ public class SudokuUI extends javax.swing.JFrame {
         } else {
             LOGGER.error("Could not load image file '" + Constants.IMAGE_SELECTED + "'");
         }
+        return selectedImageIcon;
+    }
+
+    private void setSolverEngine(SolverEngine _solverEngine) {
+        ImageIcon selectedImageIcon = loadSelectedImageIcon();
+        LOGGER.info("Setting solver to " + _solverEngine.getDisplayName());
+        solverEngine = _solverEngine;
+        puzzlePool.setSolver(solverEngine, maxNrOfTries);
+        boolean backtracking = solverEngine == SolverEngine.BACKTRACKING;
+        boolean iterative = solverEngine == SolverEngine.ITERATIVE;
+        boolean parallel = solverEngine == SolverEngine.PARALLEL;
+        boolean dancingLinks = solverEngine == SolverEngine.DANCING_LINKS;
+        menu_settings_menu_solver_item_backtracking.setSelected(backtracking);
+        menu_settings_menu_solver_item_iterative.setSelected(iterative);
+        menu_settings_menu_solver_item_parallel.setSelected(parallel);
+        menu_settings_menu_solver_item_dancingLinks.setSelected(dancingLinks);
+        menu_settings_menu_solver_item_backtracking.setIcon(backtracking ? selectedImageIcon : null);
+        menu_settings_menu_solver_item_iterative.setIcon(iterative ? selectedImageIcon : null);
+        menu_settings_menu_solver_item_parallel.setIcon(parallel ? selectedImageIcon : null);
+        menu_settings_menu_solver_item_dancingLinks.setIcon(dancingLinks ? selectedImageIcon : null);
+    }
+
+    private void setDifficulty(int _difficulty) {
+        ImageIcon selectedImageIcon = loadSelectedImageIcon();
         if (_difficulty == Constants.MAX_NR_OF_GENERATED_NUMBERS_EASY) {
             LOGGER.info("Setting difficulty to easy");
             difficulty = _difficulty;
@@ -579,6 +668,11 @@ public class SudokuUI extends javax.swing.JFrame {
         menu_settings_menu_difficulty_item_normal = new javax.swing.JMenuItem();
         menu_settings_menu_difficulty_item_hard = new javax.swing.JMenuItem();
         menu_settings_menu_difficulty_item_veryhard = new javax.swing.JMenuItem();
+        menu_settings_menu_solver = new javax.swing.JMenu();
+        menu_settings_menu_solver_item_backtracking = new javax.swing.JMenuItem();
+        menu_settings_menu_solver_item_iterative = new javax.swing.JMenuItem();
+        menu_settings_menu_solver_item_parallel = new javax.swing.JMenuItem();
+        menu_settings_menu_solver_item_dancingLinks = new javax.swing.JMenuItem();
         menu_settings_maxDepth = new javax.swing.JMenuItem();
 
         setDefaultCloseOperation(javax.swing.WindowConstants.DO_NOTHING_ON_CLOSE);
@@ -801,6 +895,42 @@ public class SudokuUI extends javax.swing.JFrame {
 
         menu_settings.add(menu_settings_menu_difficulty);
 
+        menu_settings_menu_solver.setText("Solver");
+
+        menu_settings_menu_solver_item_backtracking.setText("Backtracking");
+        menu_settings_menu_solver_item_backtracking.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                menu_settings_menu_solver_item_backtrackingActionPerformed(evt);
+            }
+        });
+        menu_settings_menu_solver.add(menu_settings_menu_solver_item_backtracking);
+
+        menu_settings_menu_solver_item_iterative.setText("Iterative backtracking");
+        menu_settings_menu_solver_item_iterative.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                menu_settings_menu_solver_item_iterativeActionPerformed(evt);
+            }
+        });
+        menu_settings_menu_solver.add(menu_settings_menu_solver_item_iterative);
+
+        menu_settings_menu_solver_item_parallel.setText("Parallel backtracking");
+        menu_settings_menu_solver_item_parallel.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                menu_settings_menu_solver_item_parallelActionPerformed(evt);
+            }
+        });
+        menu_settings_menu_solver.add(menu_settings_menu_solver_item_parallel);
+
+        menu_settings_menu_solver_item_dancingLinks.setText("Dancing Links");
+        menu_settings_menu_solver_item_dancingLinks.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                menu_settings_menu_solver_item_dancingLinksActionPerformed(evt);
+            }
+        });
+        menu_settings_menu_solver.add(menu_settings_menu_solver_item_dancingLinks);
+
+        menu_settings.add(menu_settings_menu_solver);
+
         menu_settings_maxDepth.setAccelerator(javax.swing.KeyStroke.getKeyStroke(java.awt.event.KeyEvent.VK_0,
                 java.awt.event.InputEvent.CTRL_DOWN_MASK));
         menu_settings_maxDepth.setText("Max. depth");
@@ -838,6 +968,26 @@ public class SudokuUI extends javax.swing.JFrame {
         setDifficulty(Constants.MAX_NR_OF_GENERATED_NUMBERS_VERYHARD);
     }// GEN-LAST:event_menu_settings_menu_difficulty_item_veryHardActionPerformed
 
+    private void menu_settings_menu_solver_item_backtrackingActionPerformed(java.awt.event.ActionEvent evt) {// GEN-FIRST:event_menu_settings_menu_solver_item_backtrackingActionPerformed
+        LOGGER.debug("Setting solver to backtracking");
+        setSolverEngine(SolverEngine.BACKTRACKING);
+    }// GEN-LAST:event_menu_settings_menu_solver_item_backtrackingActionPerformed
+
+    private void menu_settings_menu_solver_item_iterativeActionPerformed(java.awt.event.ActionEvent evt) {// GEN-FIRST:event_menu_settings_menu_solver_item_iterativeActionPerformed
+        LOGGER.debug("Setting solver to iterative backtracking");
+        setSolverEngine(SolverEngine.ITERATIVE);
+    }// GEN-LAST:event_menu_settings_menu_solver_item_iterativeActionPerformed
+
+    private void menu_settings_menu_solver_item_parallelActionPerformed(java.awt.event.ActionEvent evt) {// GEN-FIRST:event_menu_settings_menu_solver_item_parallelActionPerformed
+        LOGGER.debug("Setting solver to parallel backtracking");
+        setSolverEngine(SolverEngine.PARALLEL);
+    }// GEN-LAST:event_menu_settings_menu_solver_item_parallelActionPerformed
+
+    private void menu_settings_menu_solver_item_dancingLinksActionPerformed(java.awt.event.ActionEvent evt) {// GEN-FIRST:event_menu_settings_menu_solver_item_dancingLinksActionPerformed
+        LOGGER.debug("Setting solver to dancing links");
+        setSolverEngine(SolverEngine.DANCING_LINKS);
+    }// GEN-LAST:event_menu_settings_menu_solver_item_dancingLinksActionPerformed
+
     private void menu_options_clearActionPerformed(java.awt.event.ActionEvent evt) {// GEN-FIRST:event_menu_options_clearActionPerformed
         LOGGER.debug("Clear grid");
         if (checkAndWarnIfFilled()) {
@@ -902,6 +1052,7 @@ public class SudokuUI extends javax.swing.JFrame {
                 JOptionPane.INFORMATION_MESSAGE, icon, arr, arr[currSelected]);
         if (input != null) {
             maxNrOfTries = (int) input;
+            puzzlePool.setSolver(solverEngine, maxNrOfTries);
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.debug("Set max. no. of tries to: " + maxNrOfTries);
             }
@@ -1100,6 +1251,11 @@ public class SudokuUI extends javax.swing.JFrame {
     private javax.swing.JMenuItem menu_settings_menu_difficulty_item_hard;
     private javax.swing.JMenuItem menu_settings_menu_difficulty_item_veryhard;
     private javax.swing.JMenuItem menu_settings_menu_difficulty_item_normal;
+    private javax.swing.JMenu menu_settings_menu_solver;
+    private javax.swing.JMenuItem menu_settings_menu_solver_item_backtracking;
+    private javax.swing.JMenuItem menu_settings_menu_solver_item_dancingLinks;
+    private javax.swing.JMenuItem menu_settings_menu_solver_item_iterative;
+    private javax.swing.JMenuItem menu_settings_menu_solver_item_parallel;
     private javax.swing.JMenuBar menubar;
     private javax.swing.JPanel panel_1_1;
     private javax.swing.JPanel panel_1_2;
@@ -0,0 +1,161 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.server;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import lombok.Getter;
+
+/**
+ * Sends puzzles to a SudokuServer from a fixed number of client threads, each waiting for its response before it
+ * sends the next request, and measures throughput and latency. With a batch size of 1 every request goes to /solve,
+ * otherwise to /batch with that many puzzles per request. Puzzles are taken round robin from the given list.
+ */
+public class LoadGenerator {
+
+    private static final Logger LOGGER = LogManager.getLogger(LoadGenerator.class);
+
+    private final String baseUrl;
+    private final int concurrency;
+    private final int batchSize;
+    private final HttpClient client;
+
+    public LoadGenerator(String baseUrl, int concurrency, int batchSize) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.concurrency = concurrency;
+        this.batchSize = batchSize;
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    public Statistics run(List<String> puzzles, int nrOfRequests) throws InterruptedException {
+        LOGGER.info("Sending " + nrOfRequests + " requests with " + batchSize + " puzzle(s) each to " + baseUrl
+                + " from " + concurrency + " threads");
+        URI uri = URI.create(baseUrl + ((batchSize > 1) ? "/batch" : "/solve"));
+        long[] latencies = new long[nrOfRequests];
+        AtomicInteger nextRequest = new AtomicInteger();
+        AtomicInteger nrOfRejected = new AtomicInteger();
+        AtomicInteger nrOfErrors = new AtomicInteger();
+
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        for (int t = 0; t < concurrency; ++t) {
+            executor.execute(() -> {
+                StringBuilder body = new StringBuilder();
+                for (int request = nextRequest.getAndIncrement(); request < nrOfRequests; request = nextRequest
+                        .getAndIncrement()) {
+                    body.setLength(0);
+                    for (int k = 0; k < batchSize; ++k) {
+                        body.append(puzzles.get((int) (((long) request * batchSize + k) % puzzles.size())))
+                                .append('\n');
+                    }
+                    HttpRequest httpRequest = HttpRequest.newBuilder(uri)
+                            .POST(HttpRequest.BodyPublishers.ofString(body.toString())).build();
+                    long sent = System.nanoTime();
+                    try {
+                        int status = client.send(httpRequest, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        if (status == 503) {
+                            nrOfRejected.incrementAndGet();
+                        } else if (status != 200) {
+                            nrOfErrors.incrementAndGet();
+                        }
+                    } catch (IOException ex) {
+                        nrOfErrors.incrementAndGet();
+                        LOGGER.debug("Request failed: " + ex.getMessage());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    latencies[request] = System.nanoTime() - sent;
+                }
+            });
+        }
+        executor.shutdown();
+        while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Sent " + Math.min(nextRequest.get(), nrOfRequests) + " of " + nrOfRequests
+                        + " requests");
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        Arrays.sort(latencies);
+        return new Statistics(nrOfRequests, batchSize, nrOfRejected.get(), nrOfErrors.get(), nanos, latencies);
+    }
+
+    public static class Statistics {
+
+        @Getter
+        private final int nrOfRequests;
+        @Getter
+        private final int batchSize;
+        /**
+         * Requests answered with 503 because the server's queue was full
+         */
+        @Getter
+        private final int nrOfRejected;
+        @Getter
+        private final int nrOfErrors;
+        @Getter
+        private final long nanos;
+        private final long[] sortedLatencies;
+
+        Statistics(int nrOfRequests, int batchSize, int nrOfRejected, int nrOfErrors, long nanos,
+                long[] sortedLatencies) {
+            this.nrOfRequests = nrOfRequests;
+            this.batchSize = batchSize;
+            this.nrOfRejected = nrOfRejected;
+            this.nrOfErrors = nrOfErrors;
+            this.nanos = nanos;
+            this.sortedLatencies = sortedLatencies;
+        }
+
+        public double getRequestsPerSecond() {
+            return (nanos > 0) ? (nrOfRequests * 1e9) / nanos : 0;
+        }
+
+        /**
+         * Counts the puzzles of all requests that were answered, rejected ones excluded
+         */
+        public double getPuzzlesPerSecond() {
+            return (nanos > 0) ? ((long) (nrOfRequests - nrOfRejected - nrOfErrors) * batchSize * 1e9) / nanos : 0;
+        }
+
+        /**
+         * @param quantile between 0 and 1, e.g. 0.99 for the 99th percentile
+         * @return the request latency in microseconds, including rejected requests
+         */
+        public long getLatencyMicros(double quantile) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, Math.min(index, sortedLatencies.length - 1))] / 1000;
+        }
+
+        @Override
+        public String toString() {
+            return nrOfRequests + " requests (" + nrOfRejected + " rejected, " + nrOfErrors + " failed) in "
+                    + (nanos / 1000000) + " ms, " + String.format("%.1f", getRequestsPerSecond()) + " requests/s, "
+                    + String.format("%.1f", getPuzzlesPerSecond()) + " puzzles/s, latency p50 "
+                    + getLatencyMicros(0.5) + " us, p99 " + getLatencyMicros(0.99) + " us, max "
+                    + getLatencyMicros(1.0) + " us";
+        }
+
+    }
+
+}
@@ -0,0 +1,518 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import de.calltopower.sudoku.generator.BatchGenerator;
+import de.calltopower.sudoku.solver.ConcurrentSolver;
+import de.calltopower.sudoku.solver.SolveResult;
+import de.calltopower.sudoku.solver.SolverEngine;
+import de.calltopower.sudoku.util.Grid;
+import de.calltopower.sudoku.util.NamedThreadFactory;
+
+/**
+ * Solves, generates and validates puzzles over HTTP. A puzzle is 81 characters, '.' or '0' for empty cells, given as
+ * the "puzzle" query parameter, as the request body or as the "puzzle" field of a JSON object in the body.
+ *
+ * <ul>
+ * <li>GET|POST /solve: {"status":"solved","solution":"...","nodes":n,"micros":n}, status is one of solved, unsolvable
+ * (no solution) or unknown (out of tries or time)</li>
+ * <li>POST /batch: one puzzle per line (NDJSON or plain), answered with one /solve result per non-empty line, in input
+ * order and streamed as soon as the next one is ready, each with its "line" number</li>
+ * <li>GET /generate?count=n&amp;difficulty=n: one {"puzzle":"...","clues":n} line per puzzle, streamed</li>
+ * <li>GET|POST /validate: {"status":"unique","solutions":n}, status is one of unique, multiple, unsolvable or
+ * unknown</li>
+ * </ul>
+ *
+ * All puzzles are solved by one ConcurrentSolver and generated on one pool with a thread per processor. At most
+ * queueCapacity puzzles to solve or generate are in work at any time: /solve, /validate and /generate are rejected
+ * with 503 when the queue has no room for all of their puzzles, /batch waits for free places and stops reading its body
+ * meanwhile, so the client is slowed down by TCP flow control. /generate stops as soon as the client has gone away.
+ *
+ * Requests are handled on a small pool of threads. /solve and /validate do not wait for the solver, their response is
+ * sent when the result is ready. /batch and /generate stream and keep their handler busy, so at most half of the
+ * handlers serve them and further streams are rejected with 503.
+ *
+ * Small responses wait for the client's delayed ACK unless the JDK's HTTP server sets TCP_NODELAY. It only does so if
+ * the system property sun.net.httpserver.nodelay is true when the first server starts, as Application.serve sets it.
+ */
+public class SudokuServer {
+
+    private static final Logger LOGGER = LogManager.getLogger(SudokuServer.class);
+
+    public final static int DEFAULT_PORT = 8080;
+    public final static int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    private static final int MAX_BODY_LENGTH = 4096;
+    private static final int MAX_NR_OF_PENDING_PER_BATCH = 256;
+    private static final int MAX_GENERATE_COUNT = 1000;
+    private static final int MIN_NR_OF_STREAMS = 4;
+    private static final String CONTENT_TYPE_JSON = "application/json";
+    private static final String CONTENT_TYPE_NDJSON = "application/x-ndjson";
+
+    private final SolverEngine solverEngine;
+    private final int maxNrOfTries;
+    private final long timeBudgetMillis;
+    private final int queueCapacity;
+    private final Semaphore queue;
+    private final Semaphore streams;
+    private final ConcurrentSolver solver;
+    private final ExecutorService generators;
+    private final ExecutorService handlers;
+    private final HttpServer server;
+
+    /**
+     * @param port the port to listen on, 0 for any free port
+     * @param timeBudgetMillis the time after which a puzzle is unknown, 0 for none
+     */
+    public SudokuServer(int port, SolverEngine solverEngine, int maxNrOfTries, long timeBudgetMillis,
+            int queueCapacity) throws IOException {
+        this.solverEngine = solverEngine;
+        this.maxNrOfTries = maxNrOfTries;
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.queueCapacity = queueCapacity;
+        queue = new Semaphore(queueCapacity);
+        solver = new ConcurrentSolver(solverEngine, maxNrOfTries);
+        generators = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                new NamedThreadFactory("SudokuServer-Generator"));
+        int nrOfStreams = Math.max(MIN_NR_OF_STREAMS, 2 * Runtime.getRuntime().availableProcessors());
+        streams = new Semaphore(nrOfStreams);
+        handlers = Executors.newFixedThreadPool(2 * nrOfStreams, new NamedThreadFactory("SudokuServer"));
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.setExecutor(handlers);
+        server.createContext("/solve", asyncHandler(this::solve));
+        server.createContext("/batch", handler(streaming(this::batch)));
+        server.createContext("/generate", handler(streaming(this::generate)));
+        server.createContext("/validate", asyncHandler(this::validate));
+    }
+
+    public void start() {
+        server.start();
+        LOGGER.info("Listening on port " + getPort() + ", solving with " + solverEngine.getDisplayName());
+    }
+
+    /**
+     * Stops accepting requests and waits up to a second for running ones
+     */
+    public void stop() {
+        server.stop(1);
+        handlers.shutdown();
+        generators.shutdownNow();
+        solver.close();
+        LOGGER.info("Stopped");
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private CompletableFuture<CharSequence> solve(HttpExchange exchange) throws IOException {
+        Grid puzzle = readPuzzle(exchange);
+        if ((puzzle == null) || !enqueue(exchange)) {
+            return null;
+        }
+        return submit(puzzle, 1).thenApply(result -> appendSolveResult(new StringBuilder("{"), result).append("}\n"));
+    }
+
+    private CompletableFuture<CharSequence> validate(HttpExchange exchange) throws IOException {
+        Grid puzzle = readPuzzle(exchange);
+        if ((puzzle == null) || !enqueue(exchange)) {
+            return null;
+        }
+        return submit(puzzle, 2).thenApply(result -> {
+            String status;
+            if (result.isUnknown()) {
+                status = "unknown";
+            } else if (result.getNrOfSolutions() == 0) {
+                status = "unsolvable";
+            } else {
+                status = (result.getNrOfSolutions() == 1) ? "unique" : "multiple";
+            }
+            return new StringBuilder().append("{\"status\":\"").append(status).append("\",\"solutions\":")
+                    .append(result.getNrOfSolutions()).append("}\n");
+        });
+    }
+
+    /**
+     * Keeps up to MAX_NR_OF_PENDING_PER_BATCH puzzles of the batch in the solver and writes the results of the oldest
+     * ones whenever they are done
+     */
+    private void batch(HttpExchange exchange) throws IOException, InterruptedException, ExecutionException {
+        if (!exchange.getRequestMethod().equals("POST")) {
+            sendError(exchange, 405, "POST one puzzle per line");
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE_NDJSON);
+        exchange.sendResponseHeaders(200, 0);
+        Deque<Pending> pending = new ArrayDeque<>();
+        StringBuilder json = new StringBuilder();
+        int nrOfLines = 0;
+        // Results that are not written, e.g. because the client went away, still free their place when solved
+        try (BufferedReader in = new BufferedReader(
+                new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8));
+                Writer out = new BufferedWriter(
+                        new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8))) {
+            for (String line = in.readLine(); line != null; line = in.readLine()) {
+                ++nrOfLines;
+                if (line.isBlank()) {
+                    continue;
+                }
+                Grid puzzle = parsePuzzle(line);
+                CompletableFuture<SolveResult> future = null;
+                if (puzzle != null) {
+                    queue.acquire();
+                    future = submit(puzzle, 1);
+                }
+                pending.add(new Pending(nrOfLines, future));
+                if (writeDone(pending, pending.size() >= MAX_NR_OF_PENDING_PER_BATCH, json, out)) {
+                    out.flush();
+                }
+            }
+            while (!pending.isEmpty()) {
+                writeDone(pending, true, json, out);
+            }
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Solved a batch of " + nrOfLines + " lines");
+        }
+    }
+
+    /**
+     * Writes the results at the head of the pending queue that are done
+     *
+     * @param wait whether to wait for the head to be done first
+     * @return whether a result has been written
+     */
+    private boolean writeDone(Deque<Pending> pending, boolean wait, StringBuilder json, Writer out)
+            throws IOException, InterruptedException, ExecutionException {
+        boolean written = false;
+        while (!pending.isEmpty() && (wait || (pending.peek().future == null) || pending.peek().future.isDone())) {
+            Pending head = pending.poll();
+            json.setLength(0);
+            json.append("{\"line\":").append(head.line).append(',');
+            if (head.future == null) {
+                json.append("\"error\":\"Invalid puzzle\"");
+            } else {
+                appendSolveResult(json, head.future.get());
+            }
+            out.append(json.append("}\n"));
+            written = true;
+            wait = false;
+        }
+        return written;
+    }
+
+    private void generate(HttpExchange exchange) throws IOException, InterruptedException {
+        if (!exchange.getRequestMethod().equals("GET")) {
+            sendError(exchange, 405, "Use GET");
+            return;
+        }
+        Map<String, String> parameters = queryParameters(exchange);
+        int count;
+        int difficulty;
+        try {
+            count = Integer.parseInt(parameters.getOrDefault("count", "1"));
+            difficulty = Integer.parseInt(parameters.getOrDefault("difficulty", "28"));
+        } catch (NumberFormatException ex) {
+            sendError(exchange, 400, "count and difficulty must be numbers");
+            return;
+        }
+        if ((count < 1) || (count > MAX_GENERATE_COUNT) || (difficulty < 17) || (difficulty > Grid.NR_OF_CELLS)) {
+            sendError(exchange, 400, "count must be 1.." + MAX_GENERATE_COUNT + ", difficulty 17.." + Grid.NR_OF_CELLS);
+            return;
+        }
+        // Every puzzle takes a place in the queue, as many as the queue has for more puzzles than that
+        int nrOfPlaces = Math.min(count, queueCapacity);
+        if (!enqueue(exchange, nrOfPlaces)) {
+            return;
+        }
+        try {
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE_NDJSON);
+            exchange.sendResponseHeaders(200, 0);
+            try (Writer out = new BufferedWriter(
+                    new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8))) {
+                StringBuilder json = new StringBuilder();
+                IOException[] failure = new IOException[1];
+                // Only unique puzzles, on the shared pool and with no more workers than puzzles
+                BatchGenerator generator = new BatchGenerator(generators,
+                        Math.min(count, Runtime.getRuntime().availableProcessors()), maxNrOfTries, solverEngine,
+                        false);
+                try {
+                    generator.generate(count, difficulty, puzzle -> {
+                        json.setLength(0);
+                        puzzle.format(json.append("{\"puzzle\":\""), false).append("\",\"clues\":")
+                                .append(nrOfClues(puzzle)).append("}\n");
+                        try {
+                            out.append(json);
+                            out.flush();
+                        } catch (IOException ex) {
+                            // The client has gone away, nobody waits for the rest
+                            failure[0] = ex;
+                            generator.cancel();
+                        }
+                    });
+                } catch (InterruptedException ex) {
+                    generator.cancel();
+                    throw ex;
+                }
+                if (failure[0] != null) {
+                    throw failure[0];
+                }
+            }
+        } finally {
+            queue.release(nrOfPlaces);
+        }
+    }
+
+    private CompletableFuture<SolveResult> submit(Grid puzzle, int solutionLimit) {
+        return solver.submit(puzzle, solutionLimit, timeBudgetMillis).whenComplete((result, ex) -> queue.release());
+    }
+
+    /**
+     * Takes a place in the queue or answers 503
+     */
+    private boolean enqueue(HttpExchange exchange) throws IOException {
+        return enqueue(exchange, 1);
+    }
+
+    /**
+     * Takes all the places in the queue or none and answers 503
+     */
+    private boolean enqueue(HttpExchange exchange, int nrOfPlaces) throws IOException {
+        if (queue.tryAcquire(nrOfPlaces)) {
+            return true;
+        }
+        exchange.getResponseHeaders().set("Retry-After", "1");
+        sendError(exchange, 503, "Queue full");
+        return false;
+    }
+
+    /**
+     * @return the puzzle of the request or null if an error has been sent
+     */
+    private Grid readPuzzle(HttpExchange exchange) throws IOException {
+        String text = queryParameters(exchange).get("puzzle");
+        if (text == null) {
+            if (!exchange.getRequestMethod().equals("POST")) {
+                sendError(exchange, 400, "No puzzle given");
+                return null;
+            }
+            byte[] body = exchange.getRequestBody().readNBytes(MAX_BODY_LENGTH + 1);
+            if (body.length > MAX_BODY_LENGTH) {
+                sendError(exchange, 413, "Request body too large");
+                return null;
+            }
+            text = new String(body, StandardCharsets.UTF_8);
+        }
+        Grid puzzle = parsePuzzle(text);
+        if (puzzle == null) {
+            sendError(exchange, 400, "Invalid puzzle");
+        }
+        return puzzle;
+    }
+
+    /**
+     * @return the puzzle, plain or as the "puzzle" field of a JSON object, or null if there is none
+     */
+    private static Grid parsePuzzle(String text) {
+        int start = 0;
+        int end = text.length();
+        if (text.trim().startsWith("{")) {
+            int key = text.indexOf("\"puzzle\"");
+            int colon = (key >= 0) ? text.indexOf(':', key + 8) : -1;
+            start = (colon >= 0) ? text.indexOf('"', colon + 1) + 1 : 0;
+            end = (start > 0) ? text.indexOf('"', start) : -1;
+            if (end < 0) {
+                return null;
+            }
+        }
+        Grid puzzle = new Grid();
+        return puzzle.parse(text, start, end) ? puzzle : null;
+    }
+
+    /**
+     * Appends the fields of a /solve result, without braces
+     */
+    private static StringBuilder appendSolveResult(StringBuilder json, SolveResult result) {
+        String status = result.isSolved() ? "solved" : (result.isUnknown() ? "unknown" : "unsolvable");
+        json.append("\"status\":\"").append(status).append('"');
+        if (result.isSolved()) {
+            result.getSolution().format(json.append(",\"solution\":\""), false).append('"');
+        }
+        json.append(",\"nodes\":").append(result.getStatistics().getNrOfNodes());
+        return json.append(",\"micros\":").append(result.getStatistics().getNanos() / 1000);
+    }
+
+    private static int nrOfClues(Grid puzzle) {
+        int nrOfClues = 0;
+        for (int cell = 0; cell < Grid.NR_OF_CELLS; ++cell) {
+            if (puzzle.atCell(cell) != 0) {
+                ++nrOfClues;
+            }
+        }
+        return nrOfClues;
+    }
+
+    private static Map<String, String> queryParameters(HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = exchange.getRequestURI().getQuery();
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                int sep = parameter.indexOf('=');
+                if (sep > 0) {
+                    parameters.put(parameter.substring(0, sep), parameter.substring(sep + 1));
+                }
+            }
+        }
+        return parameters;
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        send(exchange, status, CONTENT_TYPE_JSON, new StringBuilder("{\"error\":\"").append(message).append("\"}\n"));
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, CharSequence body)
+            throws IOException {
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static HttpHandler handler(Endpoint endpoint) {
+        return exchange -> {
+            try {
+                endpoint.handle(exchange);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException ex) {
+                LOGGER.debug("Request failed: " + ex.getMessage());
+            } catch (ExecutionException | RuntimeException ex) {
+                LOGGER.error("Request failed: " + ex.getMessage());
+                sendInternalError(exchange);
+            } finally {
+                exchange.close();
+            }
+        };
+    }
+
+    /**
+     * Sends the response of the endpoint on a handler thread once it is ready, the handler that took the request does
+     * not wait for it
+     */
+    private HttpHandler asyncHandler(AsyncEndpoint endpoint) {
+        return exchange -> {
+            CompletableFuture<CharSequence> response;
+            try {
+                response = endpoint.handle(exchange);
+            } catch (IOException ex) {
+                LOGGER.debug("Request failed: " + ex.getMessage());
+                exchange.close();
+                return;
+            } catch (RuntimeException ex) {
+                LOGGER.error("Request failed: " + ex.getMessage());
+                sendInternalError(exchange);
+                exchange.close();
+                return;
+            }
+            if (response == null) {
+                exchange.close();
+                return;
+            }
+            response.whenCompleteAsync((body, failure) -> {
+                try {
+                    if (failure == null) {
+                        send(exchange, 200, CONTENT_TYPE_JSON, body);
+                    } else {
+                        LOGGER.error("Request failed: " + failure.getMessage());
+                        sendInternalError(exchange);
+                    }
+                } catch (IOException ex) {
+                    LOGGER.debug("Request failed: " + ex.getMessage());
+                } finally {
+                    exchange.close();
+                }
+            }, handlers);
+        };
+    }
+
+    /**
+     * Takes a stream place for the endpoint or answers 503
+     */
+    private Endpoint streaming(Endpoint endpoint) {
+        return exchange -> {
+            if (!streams.tryAcquire()) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                sendError(exchange, 503, "Too many streams");
+                return;
+            }
+            try {
+                endpoint.handle(exchange);
+            } finally {
+                streams.release();
+            }
+        };
+    }
+
+    private static void sendInternalError(HttpExchange exchange) {
+        try {
+            sendError(exchange, 500, "Internal error");
+        } catch (IOException | RuntimeException ignored) {
+            // The response has already been started
+        }
+    }
+
+    private interface Endpoint {
+        void handle(HttpExchange exchange) throws IOException, InterruptedException, ExecutionException;
+    }
+
+    private interface AsyncEndpoint {
+        /**
+         * @return the body of the 200 response, null if a response has already been sent
+         */
+        CompletableFuture<CharSequence> handle(HttpExchange exchange) throws IOException;
+    }
+
+    private static class Pending {
+
+        private final int line;
+        private final CompletableFuture<SolveResult> future;
+
+        Pending(int line, CompletableFuture<SolveResult> future) {
+            this.line = line;
+            this.future = future;
+        }
+
+    }
+
+}
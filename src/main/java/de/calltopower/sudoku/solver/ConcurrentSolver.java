@@ -0,0 +1,142 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.solver;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.calltopower.sudoku.util.Grid;
+import de.calltopower.sudoku.util.NamedThreadFactory;
+import lombok.Getter;
+
+/**
+ * Solves many independent puzzles at once. Every request runs on its own virtual thread if the JDK has them (21+,
+ * looked up at runtime, so this class still builds and runs on 17), otherwise on a pool with one platform thread per
+ * processor. Either way thousands of requests can be pending without a platform thread each.
+ *
+ * A request borrows a solver from a SolverPool and returns it afterwards, so the solvers' search buffers are allocated
+ * once and reused. Solving does not block, so only about one solver per processor is in use at any time and the pool
+ * stays that small.
+ */
+public class ConcurrentSolver implements AutoCloseable {
+
+    private static final Logger LOGGER = LogManager.getLogger(ConcurrentSolver.class);
+
+    private final SolverPool pool;
+    private final ExecutorService executor;
+
+    /**
+     * Whether requests run on virtual threads
+     */
+    @Getter
+    private final boolean virtual;
+
+    public ConcurrentSolver(SolverEngine solverEngine, int maxNrOfTries) {
+        this(solverEngine, maxNrOfTries, 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param maxNrOfPooledSolvers the number of idle solvers kept for reuse
+     */
+    public ConcurrentSolver(SolverEngine solverEngine, int maxNrOfTries, int maxNrOfPooledSolvers) {
+        pool = new SolverPool(solverEngine, maxNrOfTries, maxNrOfPooledSolvers);
+        ExecutorService virtualExecutor = newVirtualThreadPerTaskExecutor();
+        virtual = (virtualExecutor != null);
+        executor = virtual ? virtualExecutor
+                : Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                        new NamedThreadFactory("ConcurrentSolver"));
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Solving with " + solverEngine.getDisplayName() + " on "
+                    + (virtual ? "virtual threads" : "a pool of platform threads"));
+        }
+    }
+
+    public CompletableFuture<SolveResult> solve(Grid puzzle) {
+        return submit(puzzle, 1, 0);
+    }
+
+    /**
+     * The puzzle is read when the request runs, it must not be changed before the future completes.
+     *
+     * @param solutionLimit the number of solutions after which the search stops, 2 for a uniqueness check
+     * @param timeBudgetMillis the time after which the result is unknown, 0 for none
+     */
+    public CompletableFuture<SolveResult> submit(Grid puzzle, int solutionLimit, long timeBudgetMillis) {
+        long deadline = System.nanoTime() + (timeBudgetMillis * 1000000L);
+        CompletableFuture<SolveResult> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(run(puzzle, solutionLimit, (timeBudgetMillis > 0), deadline));
+                } catch (RuntimeException | Error ex) {
+                    future.completeExceptionally(ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+
+    /**
+     * The time budget counts from the submission, so time spent waiting for a thread counts as well
+     */
+    private SolveResult run(Grid puzzle, int solutionLimit, boolean hasDeadline, long deadline) {
+        SudokuSolver solver = pool.acquire(puzzle);
+        try {
+            if (hasDeadline) {
+                solver.setDeadline(deadline);
+            }
+            int nrOfSolutions = solver.countSolutions(solutionLimit);
+            Grid solution = null;
+            if (nrOfSolutions > 0) {
+                solution = new Grid();
+                solution.copy(solver.getGrid());
+            }
+            SolveStatistics statistics = new SolveStatistics();
+            statistics.copy(solver.getStatistics());
+            return new SolveResult(nrOfSolutions, solution, statistics);
+        } finally {
+            pool.release(solver);
+        }
+    }
+
+    /**
+     * Lets the requests already submitted finish
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                LOGGER.debug("Waiting for requests to finish");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return Executors.newVirtualThreadPerTaskExecutor() or null if the JDK has no virtual threads
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            // Not there before JDK 19, and a preview feature that throws unless enabled in 19 and 20
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,266 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.solver;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.calltopower.sudoku.util.Constants;
+import de.calltopower.sudoku.util.Grid;
+import lombok.Getter;
+
+/**
+ * Dancing Links (Algorithm X) on the 324-column exact cover matrix of a Sudoku.
+ *
+ * Columns: 81 cell constraints, then 81 row/value, 81 column/value and 81 box/value constraints. Matrix rows: one
+ * per (cell, value) pair with exactly four nodes each. All links live in preallocated int arrays, node 0 is the root
+ * and nodes 1..324 are the column headers.
+ */
+public class DlxSolver implements SudokuSolver {
+
+    private static final Logger LOGGER = LogManager.getLogger(DlxSolver.class);
+
+    private static final int NR_OF_COLUMNS = 4 * Grid.NR_OF_CELLS;
+    private static final int NR_OF_ROWS = Grid.NR_OF_CELLS * Constants.GRID_SIZE;
+    private static final int FIRST_ROW_NODE = NR_OF_COLUMNS + 1;
+    private static final int NR_OF_NODES = FIRST_ROW_NODE + (4 * NR_OF_ROWS);
+
+    private static final int[] INITIAL_LEFT = new int[NR_OF_NODES];
+    private static final int[] INITIAL_RIGHT = new int[NR_OF_NODES];
+    private static final int[] INITIAL_UP = new int[NR_OF_NODES];
+    private static final int[] INITIAL_DOWN = new int[NR_OF_NODES];
+    private static final int[] INITIAL_SIZE = new int[NR_OF_COLUMNS + 1];
+    private static final int[] COLUMN_OF_NODE = new int[NR_OF_NODES];
+    private static final int[] ROW_OF_NODE = new int[NR_OF_NODES];
+
+    static {
+        for (int c = 0; c <= NR_OF_COLUMNS; ++c) {
+            INITIAL_LEFT[c] = (c == 0) ? NR_OF_COLUMNS : c - 1;
+            INITIAL_RIGHT[c] = (c == NR_OF_COLUMNS) ? 0 : c + 1;
+            INITIAL_UP[c] = c;
+            INITIAL_DOWN[c] = c;
+            COLUMN_OF_NODE[c] = c;
+            ROW_OF_NODE[c] = -1;
+        }
+        for (int row = 0; row < NR_OF_ROWS; ++row) {
+            int cell = row / Constants.GRID_SIZE;
+            int v = row % Constants.GRID_SIZE;
+            int[] columns = { cell, Grid.NR_OF_CELLS + (Units.ROW_OF_CELL[cell] * Constants.GRID_SIZE) + v,
+                    (2 * Grid.NR_OF_CELLS) + (Units.COL_OF_CELL[cell] * Constants.GRID_SIZE) + v,
+                    (3 * Grid.NR_OF_CELLS) + (Units.BOX_OF_CELL[cell] * Constants.GRID_SIZE) + v };
+            int first = FIRST_ROW_NODE + (4 * row);
+            for (int k = 0; k < 4; ++k) {
+                int node = first + k;
+                int header = columns[k] + 1;
+                INITIAL_LEFT[node] = first + ((k + 3) % 4);
+                INITIAL_RIGHT[node] = first + ((k + 1) % 4);
+                INITIAL_UP[node] = INITIAL_UP[header];
+                INITIAL_DOWN[node] = header;
+                INITIAL_DOWN[INITIAL_UP[header]] = node;
+                INITIAL_UP[header] = node;
+                COLUMN_OF_NODE[node] = header;
+                ROW_OF_NODE[node] = row;
+                ++INITIAL_SIZE[header];
+            }
+        }
+    }
+
+    @Getter
+    private final Grid grid;
+
+    private final int maxNrOfTries;
+    @Getter
+    private int currNrOfTries;
+
+    private final int[] left = new int[NR_OF_NODES];
+    private final int[] right = new int[NR_OF_NODES];
+    private final int[] up = new int[NR_OF_NODES];
+    private final int[] down = new int[NR_OF_NODES];
+    private final int[] size = new int[NR_OF_COLUMNS + 1];
+    private final int[] solution = new int[Grid.NR_OF_CELLS];
+    private int solutionLimit;
+    private int nrOfSolutions;
+    private long nrOfBacktracks;
+    @Getter
+    private int currDepth;
+    private int maxDepth;
+    private volatile boolean cancelled;
+    private boolean hasDeadline;
+    private long deadline;
+    private boolean deadlineExceeded;
+    @Getter
+    private final SolveStatistics statistics = new SolveStatistics();
+
+    public DlxSolver(Grid grid, int maxNrOfTries) {
+        this(grid, maxNrOfTries, true);
+    }
+
+    public DlxSolver(Grid grid, int maxNrOfTries, boolean logInitially) {
+        if (LOGGER.isDebugEnabled() && logInitially) {
+            LOGGER.debug("Max. no. of tries: " + maxNrOfTries);
+        }
+        this.grid = new Grid();
+        this.maxNrOfTries = maxNrOfTries;
+        reset(grid);
+    }
+
+    @Override
+    public void reset(Grid grid) {
+        this.grid.copy(grid);
+        currNrOfTries = 0;
+        currDepth = 0;
+        cancelled = false;
+        hasDeadline = false;
+        deadlineExceeded = false;
+    }
+
+    /**
+     * Restores the full matrix, a search leaves it partially covered
+     */
+    private void restoreMatrix() {
+        System.arraycopy(INITIAL_LEFT, 0, left, 0, NR_OF_NODES);
+        System.arraycopy(INITIAL_RIGHT, 0, right, 0, NR_OF_NODES);
+        System.arraycopy(INITIAL_UP, 0, up, 0, NR_OF_NODES);
+        System.arraycopy(INITIAL_DOWN, 0, down, 0, NR_OF_NODES);
+        System.arraycopy(INITIAL_SIZE, 0, size, 0, NR_OF_COLUMNS + 1);
+    }
+
+    @Override
+    public boolean solve() {
+        return countSolutions(1) == 1;
+    }
+
+    @Override
+    public int countSolutions(int limit) {
+        long start = System.nanoTime();
+        int startNrOfTries = currNrOfTries;
+        solutionLimit = limit;
+        nrOfSolutions = 0;
+        nrOfBacktracks = 0;
+        maxDepth = 0;
+        restoreMatrix();
+        if (!deadlineReached() && coverGivens()) {
+            search(0);
+        }
+        boolean aborted = (nrOfSolutions < limit)
+                && ((currNrOfTries >= maxNrOfTries) || cancelled || deadlineExceeded);
+        statistics.record(currNrOfTries - startNrOfTries, nrOfBacktracks, maxDepth, nrOfSolutions,
+                System.nanoTime() - start, aborted && !cancelled && !deadlineExceeded, aborted && deadlineExceeded);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug((aborted ? "Aborted: " : "Finished: ") + statistics);
+        }
+        return aborted ? -1 : nrOfSolutions;
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+    }
+
+    @Override
+    public void setDeadline(long deadline) {
+        this.deadline = deadline;
+        hasDeadline = true;
+    }
+
+    private boolean deadlineReached() {
+        if (hasDeadline && ((System.nanoTime() - deadline) >= 0)) {
+            deadlineExceeded = true;
+        }
+        return deadlineExceeded;
+    }
+
+    private boolean coverGivens() {
+        for (int cell = 0; cell < Grid.NR_OF_CELLS; ++cell) {
+            int val = grid.atCell(cell);
+            if (val > 0) {
+                int first = FIRST_ROW_NODE + (4 * ((cell * Constants.GRID_SIZE) + (val - 1)));
+                for (int k = 0; k < 4; ++k) {
+                    // A column that is already covered means two givens clash
+                    int header = COLUMN_OF_NODE[first + k];
+                    if (right[left[header]] != header) {
+                        return false;
+                    }
+                    cover(header);
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean search(int depth) {
+        ++currNrOfTries;
+        if ((currNrOfTries >= maxNrOfTries) || cancelled || deadlineExceeded
+                || (((currNrOfTries & (CLOCK_CHECK_INTERVAL - 1)) == 0) && deadlineReached())) {
+            return false;
+        }
+        currDepth = depth;
+        maxDepth = Math.max(maxDepth, depth);
+
+        if (right[0] == 0) {
+            if (++nrOfSolutions == 1) {
+                for (int k = 0; k < depth; ++k) {
+                    int row = solution[k];
+                    grid.setCell(row / Constants.GRID_SIZE, (row % Constants.GRID_SIZE) + 1);
+                }
+            }
+            return nrOfSolutions >= solutionLimit;
+        }
+
+        int column = right[0];
+        for (int c = right[column]; c != 0; c = right[c]) {
+            if (size[c] < size[column]) {
+                column = c;
+            }
+        }
+        if (size[column] == 0) {
+            return false;
+        }
+
+        cover(column);
+        for (int node = down[column]; node != column; node = down[node]) {
+            solution[depth] = ROW_OF_NODE[node];
+            for (int n = right[node]; n != node; n = right[n]) {
+                cover(COLUMN_OF_NODE[n]);
+            }
+            if (search(depth + 1)) {
+                return true;
+            }
+            ++nrOfBacktracks;
+            for (int n = left[node]; n != node; n = left[n]) {
+                uncover(COLUMN_OF_NODE[n]);
+            }
+        }
+        uncover(column);
+
+        return false;
+    }
+
+    private void cover(int header) {
+        right[left[header]] = right[header];
+        left[right[header]] = left[header];
+        for (int row = down[header]; row != header; row = down[row]) {
+            for (int n = right[row]; n != row; n = right[n]) {
+                down[up[n]] = down[n];
+                up[down[n]] = up[n];
+                --size[COLUMN_OF_NODE[n]];
+            }
+        }
+    }
+
+    private void uncover(int header) {
+        for (int row = up[header]; row != header; row = up[row]) {
+            for (int n = left[row]; n != row; n = left[n]) {
+                ++size[COLUMN_OF_NODE[n]];
+                down[up[n]] = n;
+                up[down[n]] = n;
+            }
+        }
+        right[left[header]] = header;
+        left[right[header]] = header;
+    }
+
+}
@@ -0,0 +1,73 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.solver;
+
+import de.calltopower.sudoku.util.Grid;
+
+/**
+ * Same propagation and minimum remaining values search as Solver, but with an explicit stack of (cell, remaining
+ * candidates, placed value) frames instead of recursion. Visits the same nodes in the same order.
+ */
+public class IterativeSolver extends Solver {
+
+    private final int[] frameCells = new int[Grid.NR_OF_CELLS];
+    private final int[] frameCandidates = new int[Grid.NR_OF_CELLS];
+    private final int[] frameBits = new int[Grid.NR_OF_CELLS];
+
+    public IterativeSolver(Grid grid, int maxNrOfTries) {
+        super(grid, maxNrOfTries);
+    }
+
+    public IterativeSolver(Grid grid, int maxNrOfTries, boolean logInitially) {
+        super(grid, maxNrOfTries, logInitially);
+    }
+
+    @Override
+    boolean search() {
+        int depth = 0;
+        boolean descend = true;
+        while (true) {
+            if (descend) {
+                ++currNrOfTries;
+                if (!outOfBudget()) {
+                    int selected = selectCell();
+                    if (selected == NO_EMPTY_CELL) {
+                        if (foundSolution()) {
+                            return true;
+                        }
+                    } else if (selected != DEAD_END) {
+                        frameCells[depth] = selectedCell(selected);
+                        frameCandidates[depth] = selectedCandidates(selected);
+                        frameBits[depth] = 0;
+                        ++depth;
+                    }
+                }
+            }
+            if (depth == 0) {
+                return false;
+            }
+
+            int top = depth - 1;
+            int cell = frameCells[top];
+            if (frameBits[top] != 0) {
+                unplace(cell, frameBits[top]);
+            }
+            int candidates = frameCandidates[top];
+            if (candidates == 0) {
+                grid.setCell(cell, 0);
+                --depth;
+                descend = false;
+            } else {
+                int bit = nextCandidate(candidates);
+                frameCandidates[top] = candidates ^ bit;
+                frameBits[top] = bit;
+                place(cell, bit);
+                descend = true;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,362 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.calltopower.sudoku.util.Grid;
+
+/**
+ * Splits the minimum remaining values search tree at its first branching points and searches the subtrees as
+ * ForkJoin tasks.
+ *
+ * Subtrees are numbered in the order the sequential search would visit them. In deterministic mode a solution found in
+ * subtree n only cancels the subtrees after n, so the returned solution is always the one Solver.solve() returns,
+ * independent of thread timing and pool size. The subtrees share the tries left after splitting, claimed in chunks of
+ * TRIES_PER_CLAIM, so a search takes no more tries in total than the sequential one may. solveRandomly() does not split
+ * and searches sequentially, as the random candidate order cannot be shared by the subtrees.
+ *
+ * Frontier grids, subtree solvers and their tasks are kept and reused by the next search, also after reset().
+ */
+public class ParallelSolver extends Solver {
+
+    private static final int SUBTREES_PER_THREAD = 8;
+    private static final int MAX_SPLIT_DEPTH = 8;
+    private static final int TRIES_PER_CLAIM = 1024;
+
+    private final ForkJoinPool pool;
+    private final boolean deterministic;
+
+    private final List<Grid> frontier = new ArrayList<>();
+    private int frontierSize;
+    private int splitDepth;
+    private boolean reachedSplitDepth;
+
+    private Subtree[] subtreeCache = new Subtree[0];
+    private RecursiveAction[] tasks = new RecursiveAction[0];
+    private int nrOfSubtrees;
+    /**
+     * The subtree cache while it is in use, only the first nrOfSubtrees are part of the current search
+     */
+    private volatile Subtree[] subtrees;
+    private volatile boolean searchingSubtrees;
+    private final AtomicInteger firstSolvedSubtree = new AtomicInteger(Integer.MAX_VALUE);
+    private final AtomicInteger nrOfSolutionsFound = new AtomicInteger();
+    private final AtomicInteger nrOfTriesLeft = new AtomicInteger();
+    private volatile boolean outOfTries;
+
+    private final RecursiveAction searchSubtrees = new RecursiveAction() {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected void compute() {
+            for (int n = nrOfSubtrees - 1; n > 0; --n) {
+                tasks[n].fork();
+            }
+            tasks[0].invoke();
+            for (int n = 1; n < nrOfSubtrees; ++n) {
+                tasks[n].join();
+            }
+        }
+    };
+
+    public ParallelSolver(Grid grid, int maxNrOfTries) {
+        this(grid, maxNrOfTries, true);
+    }
+
+    public ParallelSolver(Grid grid, int maxNrOfTries, boolean logInitially) {
+        this(grid, maxNrOfTries, logInitially, ForkJoinPool.commonPool(), true);
+    }
+
+    public ParallelSolver(Grid grid, int maxNrOfTries, boolean logInitially, ForkJoinPool pool,
+            boolean deterministic) {
+        super(grid, maxNrOfTries, logInitially);
+        this.pool = pool;
+        this.deterministic = deterministic;
+    }
+
+    @Override
+    public void cancel() {
+        super.cancel();
+        Subtree[] current = subtrees;
+        if (current != null) {
+            for (int n = 0; n < nrOfSubtrees; ++n) {
+                current[n].cancel();
+            }
+        }
+    }
+
+    @Override
+    public void reset(Grid grid) {
+        super.reset(grid);
+        subtrees = null;
+        nrOfSubtrees = 0;
+        frontierSize = 0;
+        firstSolvedSubtree.set(Integer.MAX_VALUE);
+        nrOfSolutionsFound.set(0);
+    }
+
+    /**
+     * Includes the tries of the subtrees while they are being searched
+     */
+    @Override
+    public int getCurrNrOfTries() {
+        int tries = super.getCurrNrOfTries();
+        Subtree[] current = subtrees;
+        if (searchingSubtrees && (current != null)) {
+            for (int n = 0; n < nrOfSubtrees; ++n) {
+                tries += current[n].getCurrNrOfTries();
+            }
+        }
+        return tries;
+    }
+
+    @Override
+    boolean search() {
+        if (isSolvingRandomly()) {
+            return super.search();
+        }
+        subtrees = null;
+        nrOfSubtrees = 0;
+        firstSolvedSubtree.set(Integer.MAX_VALUE);
+        nrOfSolutionsFound.set(0);
+        outOfTries = false;
+        int target = pool.getParallelism() * SUBTREES_PER_THREAD;
+        splitDepth = 0;
+        do {
+            ++splitDepth;
+            frontierSize = 0;
+            reachedSplitDepth = false;
+            expand(0);
+        } while (reachedSplitDepth && (frontierSize < target) && (splitDepth < MAX_SPLIT_DEPTH)
+                && !searchAborted());
+        if ((frontierSize == 0) || searchAborted()) {
+            return false;
+        }
+
+        nrOfTriesLeft.set(maxNrOfTries - currNrOfTries);
+        prepareSubtrees();
+        // A cancel() before the subtrees were published has not reached them, preparing them cleared their flags
+        if (isCancelled()) {
+            return false;
+        }
+        searchingSubtrees = true;
+        searchSubtrees.reinitialize();
+        pool.invoke(searchSubtrees);
+        searchingSubtrees = false;
+
+        collectResults();
+        return nrOfSolutions >= solutionLimit;
+    }
+
+    private void expand(int depth) {
+        ++currNrOfTries;
+        int selected = selectCell();
+        if (selected == DEAD_END) {
+            return;
+        }
+        if ((selected == NO_EMPTY_CELL) || (depth == splitDepth)) {
+            reachedSplitDepth |= (selected != NO_EMPTY_CELL);
+            if (frontierSize == frontier.size()) {
+                frontier.add(new Grid());
+            }
+            frontier.get(frontierSize++).copy(grid);
+            return;
+        }
+
+        int cell = selectedCell(selected);
+        int candidates = selectedCandidates(selected);
+        while (candidates != 0) {
+            int bit = Integer.lowestOneBit(candidates);
+            candidates ^= bit;
+            place(cell, bit);
+            expand(depth + 1);
+            unplace(cell, bit);
+        }
+        grid.setCell(cell, 0);
+    }
+
+    /**
+     * Resets the first frontierSize cached subtrees to the frontier, creating missing ones
+     */
+    private void prepareSubtrees() {
+        if (subtreeCache.length < frontierSize) {
+            int n = subtreeCache.length;
+            subtreeCache = Arrays.copyOf(subtreeCache, frontierSize);
+            tasks = Arrays.copyOf(tasks, frontierSize);
+            for (; n < frontierSize; ++n) {
+                Subtree subtree = new Subtree(frontier.get(n), n, maxNrOfTries);
+                subtreeCache[n] = subtree;
+                tasks[n] = new RecursiveAction() {
+                    private static final long serialVersionUID = 1L;
+
+                    @Override
+                    protected void compute() {
+                        subtree.run();
+                    }
+                };
+            }
+        }
+        for (int n = 0; n < frontierSize; ++n) {
+            subtreeCache[n].reset(frontier.get(n));
+            subtreeCache[n].copyDeadline(this);
+            tasks[n].reinitialize();
+        }
+        nrOfSubtrees = frontierSize;
+        subtrees = subtreeCache;
+    }
+
+    private void onSolution(int index) {
+        if (solutionLimit > 1) {
+            if (nrOfSolutionsFound.incrementAndGet() >= solutionLimit) {
+                // The subtree that reached the limit has to stop as well, it only stops at its own limit
+                cancelSubtreesAfter(-1, -1);
+            }
+        } else if (deterministic) {
+            if (firstSolvedSubtree.accumulateAndGet(index, Math::min) == index) {
+                cancelSubtreesAfter(index, index);
+            }
+        } else if (firstSolvedSubtree.compareAndSet(Integer.MAX_VALUE, index)) {
+            cancelSubtreesAfter(-1, index);
+        }
+    }
+
+    /**
+     * @return up to TRIES_PER_CLAIM of the tries left, 0 if they are used up
+     */
+    private int claimTries() {
+        while (true) {
+            int left = nrOfTriesLeft.get();
+            if (left <= 0) {
+                outOfTries = true;
+                return 0;
+            }
+            int claim = Math.min(left, TRIES_PER_CLAIM);
+            if (nrOfTriesLeft.compareAndSet(left, left - claim)) {
+                return claim;
+            }
+        }
+    }
+
+    private boolean isObsolete(int index) {
+        if (solutionLimit > 1) {
+            return nrOfSolutionsFound.get() >= solutionLimit;
+        }
+        int first = firstSolvedSubtree.get();
+        return deterministic ? (first < index) : (first != Integer.MAX_VALUE);
+    }
+
+    private void cancelSubtreesAfter(int index, int except) {
+        for (int n = index + 1; n < nrOfSubtrees; ++n) {
+            if (n != except) {
+                subtrees[n].cancel();
+            }
+        }
+    }
+
+    private void collectResults() {
+        int first = -1;
+        int total = 0;
+        // Splitting only enumerates the frontier, it does not count as backtracking
+        nrOfBacktracks = 0;
+        for (int n = 0; n < nrOfSubtrees; ++n) {
+            Subtree subtree = subtrees[n];
+            currNrOfTries += subtree.getCurrNrOfTries();
+            nrOfBacktracks += subtree.nrOfBacktracks;
+            deadlineExceeded |= subtree.deadlineExceeded;
+            maxDepth = Math.max(maxDepth, splitDepth + subtree.maxDepth);
+            if (subtree.nrOfSolutions > 0) {
+                total += subtree.nrOfSolutions;
+                if (first == -1) {
+                    first = subtree.index;
+                }
+            }
+        }
+        if (solutionLimit == 1) {
+            first = (firstSolvedSubtree.get() == Integer.MAX_VALUE) ? -1 : firstSolvedSubtree.get();
+        }
+        if (first != -1) {
+            (solutionLimit > 1 ? solution : grid).copy(subtrees[first].getGrid());
+        }
+        nrOfSolutions = Math.min(total, solutionLimit);
+    }
+
+    @Override
+    boolean searchAborted() {
+        if (super.searchAborted()) {
+            return true;
+        }
+        if (outOfTries) {
+            return true;
+        }
+        Subtree[] current = subtrees;
+        if (current != null) {
+            for (int n = 0; n < nrOfSubtrees; ++n) {
+                // Subtrees cancelled because of a sibling's solution do not count
+                if (current[n].deadlineExceeded) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private class Subtree extends IterativeSolver {
+
+        private final int index;
+        /**
+         * The tries claimed from the shared ones so far
+         */
+        private int nrOfTriesClaimed;
+
+        Subtree(Grid grid, int index, int maxNrOfTries) {
+            super(grid, maxNrOfTries, false);
+            this.index = index;
+        }
+
+        void run() {
+            nrOfTriesClaimed = 0;
+            if (!isObsolete(index) && !ParallelSolver.this.isCancelled()) {
+                // No propagation here, so the subtree is searched exactly like the sequential search would
+                solutionLimit = ParallelSolver.this.solutionLimit;
+                initMasks();
+                search();
+                if ((nrOfSolutions > 0) && (solutionLimit > 1)) {
+                    grid.copy(solution);
+                }
+                if (nrOfTriesClaimed > currNrOfTries) {
+                    nrOfTriesLeft.addAndGet(nrOfTriesClaimed - currNrOfTries);
+                }
+            }
+        }
+
+        @Override
+        boolean outOfBudget() {
+            if (currNrOfTries > nrOfTriesClaimed) {
+                int claim = claimTries();
+                if (claim == 0) {
+                    return true;
+                }
+                nrOfTriesClaimed += claim;
+            }
+            return super.outOfBudget() || ParallelSolver.this.isCancelled();
+        }
+
+        @Override
+        boolean foundSolution() {
+            boolean stop = super.foundSolution();
+            onSolution(index);
+            return stop;
+        }
+
+    }
+
+}
@@ -0,0 +1,233 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.solver;
+
+import de.calltopower.sudoku.util.Constants;
+import de.calltopower.sudoku.util.Grid;
+import lombok.Getter;
+
+/**
+ * Deduces values without guessing: naked singles, hidden singles and locked candidates (pointing/claiming)
+ */
+public class Propagator {
+
+    @Getter
+    private final Grid grid;
+
+    final int[] candidates = new int[Grid.NR_OF_CELLS];
+
+    @Getter
+    private boolean contradiction;
+    @Getter
+    private int nrOfNakedSingles;
+    @Getter
+    private int nrOfHiddenSingles;
+    @Getter
+    private int nrOfLockedCandidates;
+
+    /**
+     * Works on the given grid directly, deduced values are written into it
+     */
+    public Propagator(Grid grid) {
+        this.grid = grid;
+        reset();
+    }
+
+    public void reset() {
+        contradiction = false;
+        nrOfNakedSingles = 0;
+        nrOfHiddenSingles = 0;
+        nrOfLockedCandidates = 0;
+        for (int cell = 0; cell < Grid.NR_OF_CELLS; ++cell) {
+            candidates[cell] = (grid.atCell(cell) == 0) ? Units.ALL_VALUES : 0;
+        }
+        for (int cell = 0; cell < Grid.NR_OF_CELLS; ++cell) {
+            int val = grid.atCell(cell);
+            if (val > 0) {
+                eliminateFromPeers(cell, Units.bit(val));
+            }
+        }
+    }
+
+    public int getNrOfDeductions() {
+        return nrOfNakedSingles + nrOfHiddenSingles + nrOfLockedCandidates;
+    }
+
+    public int candidatesAt(int cell) {
+        return candidates[cell];
+    }
+
+    /**
+     * Applies deductions until a fixpoint is reached.
+     *
+     * @return false if the grid turned out to be contradictory
+     */
+    public boolean propagate() {
+        while (step() != -1) {
+            // Keep going
+        }
+        return !contradiction;
+    }
+
+    /**
+     * Applies deductions until one more value has been placed.
+     *
+     * @return the index of the placed cell or -1 if nothing could be deduced (or on contradiction)
+     */
+    public int step() {
+        while (!contradiction) {
+            int cell = findNakedSingle();
+            if (cell != -1) {
+                ++nrOfNakedSingles;
+                place(cell, candidates[cell]);
+                return cell;
+            }
+            if (contradiction) {
+                break;
+            }
+            cell = findHiddenSingle();
+            if (cell != -1) {
+                ++nrOfHiddenSingles;
+                return cell;
+            }
+            if (contradiction || !eliminateLockedCandidates()) {
+                break;
+            }
+        }
+        return -1;
+    }
+
+    private int findNakedSingle() {
+        for (int cell = 0; cell < Grid.NR_OF_CELLS; ++cell) {
+            if (grid.atCell(cell) == 0) {
+                int cellCandidates = candidates[cell];
+                if (cellCandidates == 0) {
+                    contradiction = true;
+                    return -1;
+                }
+                if ((cellCandidates & (cellCandidates - 1)) == 0) {
+                    return cell;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private int findHiddenSingle() {
+        for (int[] unit : Units.UNITS) {
+            int atLeastOnce = 0;
+            int moreThanOnce = 0;
+            int placed = 0;
+            for (int cell : unit) {
+                int val = grid.atCell(cell);
+                if (val > 0) {
+                    placed |= Units.bit(val);
+                } else {
+                    moreThanOnce |= atLeastOnce & candidates[cell];
+                    atLeastOnce |= candidates[cell];
+                }
+            }
+            if ((atLeastOnce | placed) != Units.ALL_VALUES) {
+                contradiction = true;
+                return -1;
+            }
+            int exactlyOnce = atLeastOnce & ~moreThanOnce;
+            if (exactlyOnce != 0) {
+                int bit = Integer.lowestOneBit(exactlyOnce);
+                for (int cell : unit) {
+                    if ((candidates[cell] & bit) != 0) {
+                        place(cell, bit);
+                        return cell;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    private boolean eliminateLockedCandidates() {
+        boolean eliminated = false;
+        for (int b = 0; b < Constants.GRID_SIZE; ++b) {
+            int[] box = Units.UNITS[(2 * Constants.GRID_SIZE) + b];
+            for (int bit = 1; bit <= Units.ALL_VALUES; bit <<= 1) {
+                int row = -1;
+                int col = -1;
+                for (int cell : box) {
+                    if ((candidates[cell] & bit) != 0) {
+                        row = (row == -1 || row == Units.ROW_OF_CELL[cell]) ? Units.ROW_OF_CELL[cell] : -2;
+                        col = (col == -1 || col == Units.COL_OF_CELL[cell]) ? Units.COL_OF_CELL[cell] : -2;
+                    }
+                }
+                // Pointing: the value is confined to one row/column inside the box
+                if ((row >= 0) && eliminateOutsideBox(Units.UNITS[row], b, bit)) {
+                    eliminated = true;
+                }
+                if ((col >= 0) && eliminateOutsideBox(Units.UNITS[Constants.GRID_SIZE + col], b, bit)) {
+                    eliminated = true;
+                }
+            }
+        }
+        for (int u = 0; u < (2 * Constants.GRID_SIZE); ++u) {
+            int[] line = Units.UNITS[u];
+            for (int bit = 1; bit <= Units.ALL_VALUES; bit <<= 1) {
+                int b = -1;
+                for (int cell : line) {
+                    if ((candidates[cell] & bit) != 0) {
+                        b = (b == -1 || b == Units.BOX_OF_CELL[cell]) ? Units.BOX_OF_CELL[cell] : -2;
+                    }
+                }
+                // Claiming: the value is confined to one box inside the row/column
+                if ((b >= 0) && eliminateOutsideLine(Units.UNITS[(2 * Constants.GRID_SIZE) + b], u, bit)) {
+                    eliminated = true;
+                }
+            }
+        }
+        return eliminated;
+    }
+
+    private boolean eliminateOutsideBox(int[] line, int b, int bit) {
+        boolean eliminated = false;
+        for (int cell : line) {
+            if ((Units.BOX_OF_CELL[cell] != b) && ((candidates[cell] & bit) != 0)) {
+                candidates[cell] &= ~bit;
+                eliminated = true;
+            }
+        }
+        if (eliminated) {
+            ++nrOfLockedCandidates;
+        }
+        return eliminated;
+    }
+
+    private boolean eliminateOutsideLine(int[] box, int u, int bit) {
+        boolean eliminated = false;
+        for (int cell : box) {
+            boolean onLine = (u < Constants.GRID_SIZE) ? (Units.ROW_OF_CELL[cell] == u)
+                    : (Units.COL_OF_CELL[cell] == (u - Constants.GRID_SIZE));
+            if (!onLine && ((candidates[cell] & bit) != 0)) {
+                candidates[cell] &= ~bit;
+                eliminated = true;
+            }
+        }
+        if (eliminated) {
+            ++nrOfLockedCandidates;
+        }
+        return eliminated;
+    }
+
+    private void place(int cell, int bit) {
+        grid.setCell(cell, Units.value(bit));
+        candidates[cell] = 0;
+        eliminateFromPeers(cell, bit);
+    }
+
+    private void eliminateFromPeers(int cell, int bit) {
+        for (int peer : Units.PEERS[cell]) {
+            candidates[peer] &= ~bit;
+        }
+    }
+
+}
@@ -0,0 +1,282 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.solver;
+
+import java.util.Arrays;
+
+import de.calltopower.sudoku.util.Constants;
+import de.calltopower.sudoku.util.Grid;
+
+/**
+ * Rates a puzzle by solving it like a human would: the propagator's singles and locked candidates as long as they
+ * make progress, and only when they are stuck the next harder technique, one elimination at a time.
+ */
+public class Rater extends Propagator {
+
+    private final int[] nrOfUses = new int[Technique.values().length];
+    private final int[] positions = new int[Constants.GRID_SIZE];
+    private final int[] colors = new int[Grid.NR_OF_CELLS];
+    private final int[] queue = new int[Grid.NR_OF_CELLS];
+
+    /**
+     * Works on a copy of the puzzle
+     */
+    public Rater(Grid puzzle) {
+        super(copyOf(puzzle));
+    }
+
+    private static Grid copyOf(Grid puzzle) {
+        Grid grid = new Grid();
+        grid.copy(puzzle);
+        return grid;
+    }
+
+    public Rating rate() {
+        Arrays.fill(nrOfUses, 0);
+        while (propagate() && !getGrid().isCompletelyFilled()) {
+            Technique technique = applyAdvancedTechnique();
+            if (technique == null) {
+                break;
+            }
+            ++nrOfUses[technique.ordinal()];
+        }
+        boolean solved = !isContradiction() && getGrid().isCompletelyFilled();
+        nrOfUses[Technique.NAKED_SINGLE.ordinal()] = getNrOfNakedSingles();
+        nrOfUses[Technique.HIDDEN_SINGLE.ordinal()] = getNrOfHiddenSingles();
+        nrOfUses[Technique.LOCKED_CANDIDATES.ordinal()] = getNrOfLockedCandidates();
+        nrOfUses[Technique.TRIAL_AND_ERROR.ordinal()] = solved ? 0 : 1;
+        return new Rating(nrOfUses, solved);
+    }
+
+    private Technique applyAdvancedTechnique() {
+        if (nakedPair()) {
+            return Technique.NAKED_PAIR;
+        }
+        if (hiddenPair()) {
+            return Technique.HIDDEN_PAIR;
+        }
+        if (fish(2)) {
+            return Technique.X_WING;
+        }
+        if (fish(3)) {
+            return Technique.SWORDFISH;
+        }
+        if (simpleColoring()) {
+            return Technique.SIMPLE_COLORING;
+        }
+        return null;
+    }
+
+    private boolean nakedPair() {
+        for (int[] unit : Units.UNITS) {
+            for (int a = 0; a < Constants.GRID_SIZE; ++a) {
+                int pair = candidates[unit[a]];
+                if (Integer.bitCount(pair) != 2) {
+                    continue;
+                }
+                for (int b = a + 1; b < Constants.GRID_SIZE; ++b) {
+                    if (candidates[unit[b]] == pair) {
+                        boolean eliminated = false;
+                        for (int k = 0; k < Constants.GRID_SIZE; ++k) {
+                            int cell = unit[k];
+                            if ((k != a) && (k != b) && ((candidates[cell] & pair) != 0)) {
+                                candidates[cell] &= ~pair;
+                                eliminated = true;
+                            }
+                        }
+                        if (eliminated) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean hiddenPair() {
+        for (int[] unit : Units.UNITS) {
+            for (int v = 0; v < Constants.GRID_SIZE; ++v) {
+                positions[v] = 0;
+                for (int k = 0; k < Constants.GRID_SIZE; ++k) {
+                    if ((candidates[unit[k]] & (1 << v)) != 0) {
+                        positions[v] |= 1 << k;
+                    }
+                }
+            }
+            for (int v = 0; v < Constants.GRID_SIZE; ++v) {
+                if (Integer.bitCount(positions[v]) != 2) {
+                    continue;
+                }
+                for (int w = v + 1; w < Constants.GRID_SIZE; ++w) {
+                    if (positions[w] == positions[v]) {
+                        int pair = (1 << v) | (1 << w);
+                        boolean eliminated = false;
+                        for (int k = 0; k < Constants.GRID_SIZE; ++k) {
+                            int cell = unit[k];
+                            if (((positions[v] & (1 << k)) != 0) && ((candidates[cell] & ~pair) != 0)) {
+                                candidates[cell] &= pair;
+                                eliminated = true;
+                            }
+                        }
+                        if (eliminated) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * X-Wing (size 2) and Swordfish (size 3), with rows and with columns as base lines
+     */
+    private boolean fish(int size) {
+        for (int bit = 1; bit <= Units.ALL_VALUES; bit <<= 1) {
+            for (int orientation = 0; orientation < 2; ++orientation) {
+                for (int line = 0; line < Constants.GRID_SIZE; ++line) {
+                    positions[line] = 0;
+                    for (int k = 0; k < Constants.GRID_SIZE; ++k) {
+                        if ((candidates[cellOf(orientation, line, k)] & bit) != 0) {
+                            positions[line] |= 1 << k;
+                        }
+                    }
+                }
+                if (fish(bit, orientation, size, 0, 0, 0, 0)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean fish(int bit, int orientation, int size, int start, int depth, int baseLines, int coverLines) {
+        if (depth == size) {
+            boolean eliminated = false;
+            for (int line = 0; line < Constants.GRID_SIZE; ++line) {
+                if ((baseLines & (1 << line)) == 0) {
+                    for (int k = 0; k < Constants.GRID_SIZE; ++k) {
+                        int cell = cellOf(orientation, line, k);
+                        if (((coverLines & (1 << k)) != 0) && ((candidates[cell] & bit) != 0)) {
+                            candidates[cell] &= ~bit;
+                            eliminated = true;
+                        }
+                    }
+                }
+            }
+            return eliminated;
+        }
+        for (int line = start; line < Constants.GRID_SIZE; ++line) {
+            int count = Integer.bitCount(positions[line]);
+            int cover = coverLines | positions[line];
+            if ((count >= 2) && (count <= size) && (Integer.bitCount(cover) <= size)
+                    && fish(bit, orientation, size, line + 1, depth + 1, baseLines | (1 << line), cover)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int cellOf(int orientation, int line, int k) {
+        return (orientation == 0) ? (line * Constants.GRID_SIZE) + k : (k * Constants.GRID_SIZE) + line;
+    }
+
+    /**
+     * Colors the chains of conjugate pairs (the only two places for a value in a unit) of one value alternately. Two
+     * cells of the same color in one unit make that color false, a cell seeing both colors cannot hold the value.
+     */
+    private boolean simpleColoring() {
+        for (int bit = 1; bit <= Units.ALL_VALUES; bit <<= 1) {
+            Arrays.fill(colors, 0);
+            int color = 2;
+            for (int start = 0; start < Grid.NR_OF_CELLS; ++start) {
+                if ((colors[start] == 0) && ((candidates[start] & bit) != 0)) {
+                    if ((colorChain(start, bit, color) > 1) && eliminateByColors(bit, color)) {
+                        return true;
+                    }
+                    color += 2;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the number of cells colored with color and color + 1
+     */
+    private int colorChain(int start, int bit, int color) {
+        int head = 0;
+        int tail = 0;
+        colors[start] = color;
+        queue[tail++] = start;
+        while (head < tail) {
+            int cell = queue[head++];
+            for (int unit = 0; unit < 3; ++unit) {
+                int u = (unit == 0) ? Units.ROW_OF_CELL[cell]
+                        : (unit == 1) ? Constants.GRID_SIZE + Units.COL_OF_CELL[cell]
+                                : (2 * Constants.GRID_SIZE) + Units.BOX_OF_CELL[cell];
+                int partner = conjugate(Units.UNITS[u], cell, bit);
+                if ((partner != -1) && (colors[partner] == 0)) {
+                    colors[partner] = colors[cell] ^ 1;
+                    queue[tail++] = partner;
+                }
+            }
+        }
+        return tail;
+    }
+
+    private int conjugate(int[] unit, int cell, int bit) {
+        int partner = -1;
+        for (int other : unit) {
+            if ((other != cell) && ((candidates[other] & bit) != 0)) {
+                if (partner != -1) {
+                    return -1;
+                }
+                partner = other;
+            }
+        }
+        return partner;
+    }
+
+    private boolean eliminateByColors(int bit, int color) {
+        for (int[] unit : Units.UNITS) {
+            for (int c = color; c <= (color + 1); ++c) {
+                int count = 0;
+                for (int cell : unit) {
+                    if (colors[cell] == c) {
+                        ++count;
+                    }
+                }
+                if (count > 1) {
+                    for (int cell = 0; cell < Grid.NR_OF_CELLS; ++cell) {
+                        if (colors[cell] == c) {
+                            candidates[cell] &= ~bit;
+                        }
+                    }
+                    return true;
+                }
+            }
+        }
+        boolean eliminated = false;
+        for (int cell = 0; cell < Grid.NR_OF_CELLS; ++cell) {
+            if (((colors[cell] & ~1) != color) && ((candidates[cell] & bit) != 0)) {
+                boolean seesColor = false;
+                boolean seesOtherColor = false;
+                for (int peer : Units.PEERS[cell]) {
+                    seesColor |= (colors[peer] == color);
+                    seesOtherColor |= (colors[peer] == (color + 1));
+                }
+                if (seesColor && seesOtherColor) {
+                    candidates[cell] &= ~bit;
+                    eliminated = true;
+                }
+            }
+        }
+        return eliminated;
+    }
+
+}
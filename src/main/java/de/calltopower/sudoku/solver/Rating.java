@@ -0,0 +1,55 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.solver;
+
+import lombok.Getter;
+
+public class Rating {
+
+    private static final int MAX_NR_OF_USES_IN_SCORE = 99;
+
+    private final int[] nrOfUses;
+
+    /**
+     * Whether the techniques up to simple coloring solve the puzzle. If not, the hardest technique is trial and error.
+     */
+    @Getter
+    private final boolean solved;
+
+    @Getter
+    private final Technique hardestTechnique;
+
+    Rating(int[] nrOfUses, boolean solved) {
+        this.nrOfUses = nrOfUses.clone();
+        this.solved = solved;
+        Technique hardest = Technique.NAKED_SINGLE;
+        for (Technique technique : Technique.values()) {
+            if (this.nrOfUses[technique.ordinal()] > 0) {
+                hardest = technique;
+            }
+        }
+        hardestTechnique = solved ? hardest : Technique.TRIAL_AND_ERROR;
+    }
+
+    public int getNrOfUses(Technique technique) {
+        return nrOfUses[technique.ordinal()];
+    }
+
+    /**
+     * Orders puzzles by their hardest technique first and by how often it was needed second
+     */
+    public int getScore() {
+        return ((hardestTechnique.ordinal() + 1) * (MAX_NR_OF_USES_IN_SCORE + 1))
+                + Math.min(getNrOfUses(hardestTechnique), MAX_NR_OF_USES_IN_SCORE);
+    }
+
+    @Override
+    public String toString() {
+        return hardestTechnique.getDisplayName() + " (" + getNrOfUses(hardestTechnique) + "x, score " + getScore()
+                + ")";
+    }
+
+}
@@ -0,0 +1,162 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.solver;
+
+import lombok.Getter;
+
+/**
+ * Aggregates the SolveStatistics of many solves into power of two histograms, so the few puzzles that make the search
+ * explode stand out from the bulk. Not thread safe, give every thread its own instance and merge them afterwards.
+ */
+public class SolveHistograms {
+
+    @Getter
+    private long nrOfSolves;
+    @Getter
+    private long nrOfBudgetsExhausted;
+    @Getter
+    private long nrOfDeadlinesExceeded;
+
+    private final int[] nrOfDeductions = new int[Technique.values().length];
+
+    @Getter
+    private final Histogram nodes = new Histogram("Nodes");
+    @Getter
+    private final Histogram backtracks = new Histogram("Backtracks");
+    @Getter
+    private final Histogram maxDepth = new Histogram("Max. depth");
+    @Getter
+    private final Histogram micros = new Histogram("Time (us)");
+
+    public void add(SolveStatistics statistics) {
+        ++nrOfSolves;
+        if (statistics.isBudgetExhausted()) {
+            ++nrOfBudgetsExhausted;
+        }
+        if (statistics.isDeadlineExceeded()) {
+            ++nrOfDeadlinesExceeded;
+        }
+        for (Technique technique : Technique.values()) {
+            nrOfDeductions[technique.ordinal()] += statistics.getNrOfDeductions(technique);
+        }
+        nodes.add(statistics.getNrOfNodes());
+        backtracks.add(statistics.getNrOfBacktracks());
+        maxDepth.add(statistics.getMaxDepth());
+        micros.add(statistics.getNanos() / 1000);
+    }
+
+    public void merge(SolveHistograms histograms) {
+        nrOfSolves += histograms.nrOfSolves;
+        nrOfBudgetsExhausted += histograms.nrOfBudgetsExhausted;
+        nrOfDeadlinesExceeded += histograms.nrOfDeadlinesExceeded;
+        for (int k = 0; k < nrOfDeductions.length; ++k) {
+            nrOfDeductions[k] += histograms.nrOfDeductions[k];
+        }
+        nodes.merge(histograms.nodes);
+        backtracks.merge(histograms.backtracks);
+        maxDepth.merge(histograms.maxDepth);
+        micros.merge(histograms.micros);
+    }
+
+    public long getNrOfDeductions(Technique technique) {
+        return nrOfDeductions[technique.ordinal()];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(nrOfSolves).append(" solves, ").append(nrOfBudgetsExhausted).append(" hit the max. no. of tries, ")
+                .append(nrOfDeadlinesExceeded).append(" hit the deadline, ")
+                .append(getNrOfDeductions(Technique.NAKED_SINGLE)).append(" naked singles, ")
+                .append(getNrOfDeductions(Technique.HIDDEN_SINGLE)).append(" hidden singles, ")
+                .append(getNrOfDeductions(Technique.LOCKED_CANDIDATES)).append(" locked candidates\n");
+        nodes.appendTo(sb);
+        backtracks.appendTo(sb);
+        maxDepth.appendTo(sb);
+        micros.appendTo(sb);
+        return sb.toString();
+    }
+
+    /**
+     * Bucket 0 counts the zeros, bucket k the values from 2^(k-1) to 2^k - 1
+     */
+    public static class Histogram {
+
+        private static final int NR_OF_BUCKETS = 64;
+
+        @Getter
+        private final String name;
+        private final long[] buckets = new long[NR_OF_BUCKETS];
+        @Getter
+        private long count;
+        @Getter
+        private long total;
+        @Getter
+        private long max;
+
+        public Histogram(String name) {
+            this.name = name;
+        }
+
+        public void add(long value) {
+            ++buckets[NR_OF_BUCKETS - Long.numberOfLeadingZeros(Math.max(value, 0))];
+            ++count;
+            total += value;
+            max = Math.max(max, value);
+        }
+
+        public void merge(Histogram histogram) {
+            for (int k = 0; k < NR_OF_BUCKETS; ++k) {
+                buckets[k] += histogram.buckets[k];
+            }
+            count += histogram.count;
+            total += histogram.total;
+            max = Math.max(max, histogram.max);
+        }
+
+        public long getBucket(int k) {
+            return buckets[k];
+        }
+
+        public double getMean() {
+            return (count > 0) ? (double) total / count : 0;
+        }
+
+        /**
+         * @return an upper bound of the given quantile (0..1), exact up to a factor of two
+         */
+        public long getQuantile(double quantile) {
+            long rank = (long) Math.ceil(quantile * count);
+            long seen = 0;
+            for (int k = 0; k < NR_OF_BUCKETS; ++k) {
+                seen += buckets[k];
+                if ((seen >= rank) && (seen > 0)) {
+                    return Math.min(upperBound(k), max);
+                }
+            }
+            return max;
+        }
+
+        private static long upperBound(int k) {
+            return (k == 0) ? 0 : (k == (NR_OF_BUCKETS - 1)) ? Long.MAX_VALUE : (1L << k) - 1;
+        }
+
+        void appendTo(StringBuilder sb) {
+            sb.append(name).append(": mean ").append(String.format("%.1f", getMean())).append(", p50 <= ")
+                    .append(getQuantile(0.5)).append(", p99 <= ").append(getQuantile(0.99)).append(", max ")
+                    .append(max).append('\n');
+            for (int k = 0; k < NR_OF_BUCKETS; ++k) {
+                if (buckets[k] > 0) {
+                    long from = (k == 0) ? 0 : 1L << (k - 1);
+                    sb.append(String.format("  %12d - %-12d %10d %5.1f%%%n", from, upperBound(k), buckets[k],
+                            (100.0 * buckets[k]) / count));
+                }
+            }
+        }
+
+    }
+
+}
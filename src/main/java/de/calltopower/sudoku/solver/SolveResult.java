@@ -0,0 +1,46 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.solver;
+
+import de.calltopower.sudoku.util.Grid;
+import lombok.Getter;
+
+/**
+ * The outcome of one request to the ConcurrentSolver
+ */
+public class SolveResult {
+
+    /**
+     * The number of solutions found (at most the requested limit) or -1 if the solver ran out of tries or time first
+     */
+    @Getter
+    private final int nrOfSolutions;
+    /**
+     * The first solution found, null if there is none
+     */
+    @Getter
+    private final Grid solution;
+    @Getter
+    private final SolveStatistics statistics;
+
+    SolveResult(int nrOfSolutions, Grid solution, SolveStatistics statistics) {
+        this.nrOfSolutions = nrOfSolutions;
+        this.solution = solution;
+        this.statistics = statistics;
+    }
+
+    public boolean isSolved() {
+        return nrOfSolutions > 0;
+    }
+
+    /**
+     * @return whether the search ended before it could tell how many solutions there are
+     */
+    public boolean isUnknown() {
+        return nrOfSolutions < 0;
+    }
+
+}
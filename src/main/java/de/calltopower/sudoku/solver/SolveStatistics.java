@@ -0,0 +1,101 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.solver;
+
+import lombok.Getter;
+
+/**
+ * What the last solve() or countSolutions() call of a solver did. Every solver owns one instance and overwrites it on
+ * each call, use copy() to keep it.
+ */
+public class SolveStatistics {
+
+    private final int[] nrOfDeductions = new int[Technique.values().length];
+
+    /**
+     * Search nodes, i.e. tries, one per partial grid the search looked at
+     */
+    @Getter
+    private long nrOfNodes;
+    /**
+     * Placed values the search had to take back
+     */
+    @Getter
+    private long nrOfBacktracks;
+    /**
+     * Deepest stack of values placed by the search, not counting givens and deductions
+     */
+    @Getter
+    private int maxDepth;
+    @Getter
+    private int nrOfSolutions;
+    @Getter
+    private long nanos;
+    /**
+     * Whether the search stopped because it reached the max. no. of tries
+     */
+    @Getter
+    private boolean budgetExhausted;
+    /**
+     * Whether the search stopped because it reached its deadline
+     */
+    @Getter
+    private boolean deadlineExceeded;
+
+    /**
+     * @return the number of values the solver deduced with the technique before searching
+     */
+    public int getNrOfDeductions(Technique technique) {
+        return nrOfDeductions[technique.ordinal()];
+    }
+
+    public int getNrOfDeductions() {
+        int sum = 0;
+        for (int n : nrOfDeductions) {
+            sum += n;
+        }
+        return sum;
+    }
+
+    public void copy(SolveStatistics statistics) {
+        System.arraycopy(statistics.nrOfDeductions, 0, nrOfDeductions, 0, nrOfDeductions.length);
+        nrOfNodes = statistics.nrOfNodes;
+        nrOfBacktracks = statistics.nrOfBacktracks;
+        maxDepth = statistics.maxDepth;
+        nrOfSolutions = statistics.nrOfSolutions;
+        nanos = statistics.nanos;
+        budgetExhausted = statistics.budgetExhausted;
+        deadlineExceeded = statistics.deadlineExceeded;
+    }
+
+    void record(long nrOfNodes, long nrOfBacktracks, int maxDepth, int nrOfSolutions, long nanos,
+            boolean budgetExhausted, boolean deadlineExceeded) {
+        this.nrOfNodes = nrOfNodes;
+        this.nrOfBacktracks = nrOfBacktracks;
+        this.maxDepth = maxDepth;
+        this.nrOfSolutions = nrOfSolutions;
+        this.nanos = nanos;
+        this.budgetExhausted = budgetExhausted;
+        this.deadlineExceeded = deadlineExceeded;
+    }
+
+    void recordDeductions(Propagator propagator) {
+        nrOfDeductions[Technique.NAKED_SINGLE.ordinal()] = propagator.getNrOfNakedSingles();
+        nrOfDeductions[Technique.HIDDEN_SINGLE.ordinal()] = propagator.getNrOfHiddenSingles();
+        nrOfDeductions[Technique.LOCKED_CANDIDATES.ordinal()] = propagator.getNrOfLockedCandidates();
+    }
+
+    @Override
+    public String toString() {
+        return nrOfSolutions + " solution(s)" + (budgetExhausted ? " (max. no. of tries reached)" : "")
+                + (deadlineExceeded ? " (deadline exceeded)" : "") + ", "
+                + nrOfNodes + " nodes, " + nrOfBacktracks + " backtracks, max. depth " + maxDepth + ", "
+                + getNrOfDeductions() + " deductions (" + getNrOfDeductions(Technique.NAKED_SINGLE)
+                + " naked singles, " + getNrOfDeductions(Technique.HIDDEN_SINGLE) + " hidden singles, "
+                + getNrOfDeductions(Technique.LOCKED_CANDIDATES) + " locked candidates), " + (nanos / 1000) + " us";
+    }
+
+}
@@ -5,6 +5,8 @@
  */
 package de.calltopower.sudoku.solver;
 
+import java.util.Random;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -12,15 +14,42 @@ import de.calltopower.sudoku.util.Constants;
 import de.calltopower.sudoku.util.Grid;
 import lombok.Getter;
 
-public class Solver {
+public class Solver implements SudokuSolver {
 
     private static final Logger LOGGER = LogManager.getLogger(Solver.class);
 
+    static final int NO_EMPTY_CELL = -1;
+    static final int DEAD_END = -2;
+
+    @Getter
+    final Grid grid;
+
+    final int maxNrOfTries;
+    @Getter
+    int currNrOfTries;
+
+    private final int[] rowMasks = new int[Constants.GRID_SIZE];
+    private final int[] colMasks = new int[Constants.GRID_SIZE];
+    private final int[] boxMasks = new int[Constants.GRID_SIZE];
+
     @Getter
-    private final Grid grid;
+    private final Propagator propagator;
 
-    private final int maxNrOfTries;
-    private int currNrOfTries;
+    final Grid solution = new Grid();
+    int solutionLimit;
+    int nrOfSolutions;
+
+    long nrOfBacktracks;
+    int depth;
+    int maxDepth;
+    @Getter
+    private final SolveStatistics statistics = new SolveStatistics();
+
+    private volatile boolean cancelled;
+    private boolean hasDeadline;
+    private long deadline;
+    boolean deadlineExceeded;
+    private Random random;
 
     public Solver(Grid grid, int maxNrOfTries) {
         this(grid, maxNrOfTries, true);
@@ -34,69 +63,42 @@ public class Solver {
         this.grid.copy(grid);
         this.maxNrOfTries = maxNrOfTries;
         currNrOfTries = 0;
+        propagator = new Propagator(this.grid);
+        initMasks();
     }
 
-    public boolean checkGrid(Grid grid) {
-        for (int i = 0; i < Constants.GRID_SIZE; ++i) {
-            for (int j = 0; j < Constants.GRID_SIZE; ++j) {
-                for (int k = 0; k < Constants.GRID_SIZE; ++k) {
-                    if ((j != k) && (grid.at(i, j) == grid.at(i, k))) {
-                        return false;
-                    }
-                }
-
-                for (int k = 0; k < Constants.GRID_SIZE; ++k) {
-                    if ((i != k) && (grid.at(i, j) == grid.at(k, j))) {
-                        return false;
-                    }
-                }
-
-                int boxRowOffset = (i / 3) * 3;
-                int boxColOffset = (j / 3) * 3;
-                for (int k = 0; k < 3; ++k) {
-                    for (int m = 0; m < 3; ++m) {
-                        if ((((boxRowOffset + k) != i) || ((boxColOffset + m) != j))
-                                && (grid.at(boxRowOffset + k, boxColOffset + m) == grid.at(i, j))) {
-                            return false;
-                        }
-                    }
-                }
-            }
-        }
-
-        return true;
+    @Override
+    public void reset(Grid grid) {
+        this.grid.copy(grid);
+        currNrOfTries = 0;
+        nrOfSolutions = 0;
+        nrOfBacktracks = 0;
+        depth = 0;
+        maxDepth = 0;
+        cancelled = false;
+        hasDeadline = false;
+        deadlineExceeded = false;
+        propagator.reset();
+        initMasks();
     }
 
-    public boolean checkGridValidity(Grid grid) {
+    void initMasks() {
+        for (int k = 0; k < Constants.GRID_SIZE; ++k) {
+            rowMasks[k] = 0;
+            colMasks[k] = 0;
+            boxMasks[k] = 0;
+        }
         for (int i = 0; i < Constants.GRID_SIZE; ++i) {
             for (int j = 0; j < Constants.GRID_SIZE; ++j) {
-                for (int k = 0; k < Constants.GRID_SIZE; ++k) {
-                    if ((j != k) && (grid.at(i, j) != 0) && (grid.at(i, k) != 0) && (grid.at(i, j) == grid.at(i, k))) {
-                        return false;
-                    }
-                }
-
-                for (int k = 0; k < Constants.GRID_SIZE; ++k) {
-                    if ((i != k) && (grid.at(i, j) != 0) && (grid.at(i, k) != 0) && (grid.at(i, j) == grid.at(k, j))) {
-                        return false;
-                    }
-                }
-
-                int boxRowOffset = (i / 3) * 3;
-                int boxColOffset = (j / 3) * 3;
-                for (int k = 0; k < 3; ++k) {
-                    for (int m = 0; m < 3; ++m) {
-                        if ((((boxRowOffset + k) != i) || ((boxColOffset + m) != j))
-                                && (grid.at(boxRowOffset + k, boxColOffset + m) != 0) && (grid.at(i, j) != 0)
-                                && (grid.at(boxRowOffset + k, boxColOffset + m) == grid.at(i, j))) {
-                            return false;
-                        }
-                    }
+                int val = grid.atCell((i * Constants.GRID_SIZE) + j);
+                if (val > 0) {
+                    int bit = Units.bit(val);
+                    rowMasks[i] |= bit;
+                    colMasks[j] |= bit;
+                    boxMasks[Units.box(i, j)] |= bit;
                 }
             }
         }
-
-        return true;
     }
 
     public boolean solve(int i, int j) {
@@ -111,47 +113,237 @@ public class Solver {
                 return true;
             }
         }
-        if (grid.at(i, j) != 0) {
+        int cell = (i * Constants.GRID_SIZE) + j;
+        if (grid.atCell(cell) != 0) {
             return solve(i + 1, j);
         }
 
-        for (int val = 1; val <= Constants.GRID_SIZE; ++val) {
-            if (legal(i, j, val)) {
-                grid.set(i, j, val);
-                if (solve(i + 1, j)) {
-                    return true;
-                }
+        int b = Units.box(i, j);
+        int candidates = ~(rowMasks[i] | colMasks[j] | boxMasks[b]) & Units.ALL_VALUES;
+        while (candidates != 0) {
+            int bit = Integer.lowestOneBit(candidates);
+            candidates ^= bit;
+            grid.setCell(cell, Units.value(bit));
+            rowMasks[i] |= bit;
+            colMasks[j] |= bit;
+            boxMasks[b] |= bit;
+            if (solve(i + 1, j)) {
+                return true;
             }
+            rowMasks[i] ^= bit;
+            colMasks[j] ^= bit;
+            boxMasks[b] ^= bit;
         }
-        grid.set(i, j, 0);
+        grid.setCell(cell, 0);
 
         return false;
     }
 
-    private boolean legal(int i, int j, int val) {
-        for (int k = 0; k < Constants.GRID_SIZE; ++k) {
-            if (val == grid.at(i, k)) {
-                return false;
-            }
+    @Override
+    public boolean solve() {
+        return countSolutions(1) == 1;
+    }
+
+    /**
+     * Like solve(), but tries the candidates of every cell in random order. Solving an empty grid this way yields a
+     * random complete grid.
+     */
+    public boolean solveRandomly(Random random) {
+        this.random = random;
+        try {
+            return solve();
+        } finally {
+            this.random = null;
         }
+    }
 
-        for (int k = 0; k < Constants.GRID_SIZE; ++k) {
-            if (val == grid.at(k, j)) {
-                return false;
+    @Override
+    public int countSolutions(int limit) {
+        long start = System.nanoTime();
+        int startNrOfTries = currNrOfTries;
+        solutionLimit = limit;
+        nrOfSolutions = 0;
+        nrOfBacktracks = 0;
+        depth = 0;
+        maxDepth = 0;
+        if (!deadlineReached() && propagator.propagate()) {
+            initMasks();
+            search();
+        }
+        if ((nrOfSolutions > 0) && (solutionLimit > 1)) {
+            grid.copy(solution);
+        }
+        boolean aborted = (nrOfSolutions < limit) && searchAborted();
+        statistics.recordDeductions(propagator);
+        statistics.record(currNrOfTries - startNrOfTries, nrOfBacktracks, maxDepth, nrOfSolutions,
+                System.nanoTime() - start, aborted && !cancelled && !deadlineExceeded, aborted && deadlineExceeded);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug((aborted ? "Aborted: " : "Finished: ") + statistics);
+        }
+        return aborted ? -1 : nrOfSolutions;
+    }
+
+    /**
+     * Minimum remaining values search from the current state.
+     *
+     * @return true if the search can stop, i.e. the solution limit has been reached
+     */
+    boolean search() {
+        ++currNrOfTries;
+        if (outOfBudget()) {
+            return false;
+        }
+
+        int selected = selectCell();
+        if (selected == DEAD_END) {
+            return false;
+        }
+        if (selected == NO_EMPTY_CELL) {
+            return foundSolution();
+        }
+
+        int cell = selectedCell(selected);
+        int candidates = selectedCandidates(selected);
+        while (candidates != 0) {
+            int bit = nextCandidate(candidates);
+            candidates ^= bit;
+            place(cell, bit);
+            if (search()) {
+                return true;
             }
+            unplace(cell, bit);
         }
+        grid.setCell(cell, 0);
+
+        return false;
+    }
+
+    @Override
+    public int getCurrDepth() {
+        return depth;
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+    }
+
+    @Override
+    public void setDeadline(long deadline) {
+        this.deadline = deadline;
+        hasDeadline = true;
+    }
+
+    boolean isSolvingRandomly() {
+        return random != null;
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    boolean searchAborted() {
+        return (currNrOfTries >= maxNrOfTries) || cancelled || deadlineExceeded;
+    }
+
+    /**
+     * The check of every search node, reads the clock only every CLOCK_CHECK_INTERVAL tries
+     */
+    boolean outOfBudget() {
+        return (currNrOfTries >= maxNrOfTries) || cancelled || deadlineExceeded
+                || (((currNrOfTries & (CLOCK_CHECK_INTERVAL - 1)) == 0) && deadlineReached());
+    }
 
-        int boxRowOffset = (i / 3) * 3;
-        int boxColOffset = (j / 3) * 3;
-        for (int k = 0; k < 3; ++k) {
-            for (int m = 0; m < 3; ++m) {
-                if (grid.at(boxRowOffset + k, boxColOffset + m) == val) {
-                    return false;
+    boolean deadlineReached() {
+        if (hasDeadline && ((System.nanoTime() - deadline) >= 0)) {
+            deadlineExceeded = true;
+        }
+        return deadlineExceeded;
+    }
+
+    void copyDeadline(Solver solver) {
+        deadline = solver.deadline;
+        hasDeadline = solver.hasDeadline;
+    }
+
+    /**
+     * Picks the empty cell with the fewest candidates (the first one on ties).
+     *
+     * @return the cell and its candidates packed into one int, NO_EMPTY_CELL or DEAD_END
+     */
+    int selectCell() {
+        int cell = -1;
+        int candidates = 0;
+        int minCount = Constants.GRID_SIZE + 1;
+        for (int c = 0; c < Grid.NR_OF_CELLS; ++c) {
+            if (grid.atCell(c) == 0) {
+                int cellCandidates = candidates(c);
+                int count = Integer.bitCount(cellCandidates);
+                if (count < minCount) {
+                    if (count == 0) {
+                        return DEAD_END;
+                    }
+                    cell = c;
+                    candidates = cellCandidates;
+                    minCount = count;
+                    if (count == 1) {
+                        break;
+                    }
                 }
             }
         }
+        return (cell == -1) ? NO_EMPTY_CELL : (candidates << 7) | cell;
+    }
+
+    /**
+     * @return the lowest candidate bit or a random one when solving randomly
+     */
+    int nextCandidate(int candidates) {
+        if (random == null) {
+            return Integer.lowestOneBit(candidates);
+        }
+        for (int k = random.nextInt(Integer.bitCount(candidates)); k > 0; --k) {
+            candidates &= candidates - 1;
+        }
+        return Integer.lowestOneBit(candidates);
+    }
+
+    static int selectedCell(int selected) {
+        return selected & 0x7F;
+    }
+
+    static int selectedCandidates(int selected) {
+        return selected >>> 7;
+    }
+
+    boolean foundSolution() {
+        if ((++nrOfSolutions == 1) && (solutionLimit > 1)) {
+            solution.copy(grid);
+        }
+        return nrOfSolutions >= solutionLimit;
+    }
+
+    void place(int cell, int bit) {
+        if (++depth > maxDepth) {
+            maxDepth = depth;
+        }
+        grid.setCell(cell, Units.value(bit));
+        rowMasks[Units.ROW_OF_CELL[cell]] |= bit;
+        colMasks[Units.COL_OF_CELL[cell]] |= bit;
+        boxMasks[Units.BOX_OF_CELL[cell]] |= bit;
+    }
+
+    void unplace(int cell, int bit) {
+        --depth;
+        ++nrOfBacktracks;
+        rowMasks[Units.ROW_OF_CELL[cell]] ^= bit;
+        colMasks[Units.COL_OF_CELL[cell]] ^= bit;
+        boxMasks[Units.BOX_OF_CELL[cell]] ^= bit;
+    }
 
-        return true;
+    private int candidates(int cell) {
+        return ~(rowMasks[Units.ROW_OF_CELL[cell]] | colMasks[Units.COL_OF_CELL[cell]]
+                | boxMasks[Units.BOX_OF_CELL[cell]]) & Units.ALL_VALUES;
     }
 
 }
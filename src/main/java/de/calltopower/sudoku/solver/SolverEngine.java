@@ -0,0 +1,41 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.solver;
+
+import de.calltopower.sudoku.util.Grid;
+import lombok.Getter;
+
+public enum SolverEngine {
+
+    BACKTRACKING("Backtracking"), ITERATIVE("Iterative backtracking"), PARALLEL("Parallel backtracking"),
+    DANCING_LINKS("Dancing Links");
+
+    @Getter
+    private final String displayName;
+
+    private SolverEngine(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public SudokuSolver create(Grid grid, int maxNrOfTries) {
+        return create(grid, maxNrOfTries, true);
+    }
+
+    public SudokuSolver create(Grid grid, int maxNrOfTries, boolean logInitially) {
+        switch (this) {
+        case ITERATIVE:
+            return new IterativeSolver(grid, maxNrOfTries, logInitially);
+        case PARALLEL:
+            return new ParallelSolver(grid, maxNrOfTries, logInitially);
+        case DANCING_LINKS:
+            return new DlxSolver(grid, maxNrOfTries, logInitially);
+        case BACKTRACKING:
+        default:
+            return new Solver(grid, maxNrOfTries, logInitially);
+        }
+    }
+
+}
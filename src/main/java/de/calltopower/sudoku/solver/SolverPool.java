@@ -0,0 +1,49 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.solver;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import de.calltopower.sudoku.util.Grid;
+
+/**
+ * Pool of solvers of one engine and max. no. of tries. A released solver is reset to the next puzzle instead of
+ * creating a new one, so its search buffers are allocated once. Up to a fixed number of idle solvers is kept in an
+ * array-backed queue, so neither acquire() nor release() allocates; more are left to the garbage collector.
+ */
+public class SolverPool {
+
+    private final SolverEngine solverEngine;
+    private final int maxNrOfTries;
+    private final BlockingQueue<SudokuSolver> idle;
+
+    public SolverPool(SolverEngine solverEngine, int maxNrOfTries, int maxNrOfIdleSolvers) {
+        this.solverEngine = solverEngine;
+        this.maxNrOfTries = maxNrOfTries;
+        idle = new ArrayBlockingQueue<>(maxNrOfIdleSolvers);
+    }
+
+    /**
+     * @return a solver for a copy of the puzzle, to be handed back with release() when done
+     */
+    public SudokuSolver acquire(Grid puzzle) {
+        SudokuSolver solver = idle.poll();
+        if (solver == null) {
+            return solverEngine.create(puzzle, maxNrOfTries, false);
+        }
+        solver.reset(puzzle);
+        return solver;
+    }
+
+    /**
+     * The solver must not be used after it has been released
+     */
+    public void release(SudokuSolver solver) {
+        idle.offer(solver);
+    }
+
+}
@@ -0,0 +1,137 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.solver;
+
+import de.calltopower.sudoku.util.Constants;
+import de.calltopower.sudoku.util.Grid;
+
+public interface SudokuSolver {
+
+    /**
+     * Tries between two reads of the clock when there is a deadline, a power of two
+     */
+    int CLOCK_CHECK_INTERVAL = 1024;
+
+    /**
+     * @return the working grid, holding the solution after a successful solve()
+     */
+    Grid getGrid();
+
+    boolean solve();
+
+    /**
+     * Starts over on a copy of the given grid, keeping all buffers, so one instance can solve any number of puzzles.
+     * Clears the tries, the deadline and a previous cancel().
+     */
+    void reset(Grid grid);
+
+    /**
+     * Searches for solutions until the limit is reached, the first one found is left in the working grid.
+     *
+     * @param limit the number of solutions after which the search stops, e.g. 2 for a uniqueness check
+     * @return the number of solutions found (at most limit) or -1 if the max. no. of tries was hit first
+     */
+    int countSolutions(int limit);
+
+    int getCurrNrOfTries();
+
+    /**
+     * @return the number of values the search has currently placed. Like getCurrNrOfTries() it may be read from
+     *         another thread while the search runs, e.g. to show progress, and is then only approximately up to date.
+     */
+    int getCurrDepth();
+
+    /**
+     * Adds a time budget to the max. no. of tries: the search stops at the given System.nanoTime() and then reports as
+     * aborted, i.e. unknown, just like when it runs out of tries. The clock is only read every CLOCK_CHECK_INTERVAL
+     * tries, so the deadline may be overrun by a fraction of a millisecond.
+     */
+    void setDeadline(long deadline);
+
+    default void setTimeBudget(long millis) {
+        setDeadline(System.nanoTime() + (millis * 1000000L));
+    }
+
+    /**
+     * Makes a running search return as soon as possible, it then reports as aborted. May be called from any thread.
+     */
+    void cancel();
+
+    /**
+     * @return the statistics of the last solve() or countSolutions() call, overwritten by the next call
+     */
+    SolveStatistics getStatistics();
+
+    /**
+     * @return whether the grid is completely and correctly filled, independent of the engine
+     */
+    static boolean checkGrid(Grid grid) {
+        for (int i = 0; i < Constants.GRID_SIZE; ++i) {
+            for (int j = 0; j < Constants.GRID_SIZE; ++j) {
+                for (int k = 0; k < Constants.GRID_SIZE; ++k) {
+                    if ((j != k) && (grid.at(i, j) == grid.at(i, k))) {
+                        return false;
+                    }
+                }
+
+                for (int k = 0; k < Constants.GRID_SIZE; ++k) {
+                    if ((i != k) && (grid.at(i, j) == grid.at(k, j))) {
+                        return false;
+                    }
+                }
+
+                int boxRowOffset = (i / 3) * 3;
+                int boxColOffset = (j / 3) * 3;
+                for (int k = 0; k < 3; ++k) {
+                    for (int m = 0; m < 3; ++m) {
+                        if ((((boxRowOffset + k) != i) || ((boxColOffset + m) != j))
+                                && (grid.at(boxRowOffset + k, boxColOffset + m) == grid.at(i, j))) {
+                            return false;
+                        }
+                    }
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return whether no value clashes with another one in its row, column or box, empty cells are ignored
+     */
+    static boolean checkGridValidity(Grid grid) {
+        for (int i = 0; i < Constants.GRID_SIZE; ++i) {
+            for (int j = 0; j < Constants.GRID_SIZE; ++j) {
+                for (int k = 0; k < Constants.GRID_SIZE; ++k) {
+                    if ((j != k) && (grid.at(i, j) != 0) && (grid.at(i, k) != 0) && (grid.at(i, j) == grid.at(i, k))) {
+                        return false;
+                    }
+                }
+
+                for (int k = 0; k < Constants.GRID_SIZE; ++k) {
+                    if ((i != k) && (grid.at(i, j) != 0) && (grid.at(i, k) != 0) && (grid.at(i, j) == grid.at(k, j))) {
+                        return false;
+                    }
+                }
+
+                int boxRowOffset = (i / 3) * 3;
+                int boxColOffset = (j / 3) * 3;
+                for (int k = 0; k < 3; ++k) {
+                    for (int m = 0; m < 3; ++m) {
+                        if ((((boxRowOffset + k) != i) || ((boxColOffset + m) != j))
+                                && (grid.at(boxRowOffset + k, boxColOffset + m) != 0) && (grid.at(i, j) != 0)
+                                && (grid.at(boxRowOffset + k, boxColOffset + m) == grid.at(i, j))) {
+                            return false;
+                        }
+                    }
+                }
+            }
+        }
+
+        return true;
+    }
+
+}
@@ -0,0 +1,26 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.solver;
+
+import lombok.Getter;
+
+/**
+ * The solving techniques the Rater knows, easiest first
+ */
+public enum Technique {
+
+    NAKED_SINGLE("Naked single"), HIDDEN_SINGLE("Hidden single"), LOCKED_CANDIDATES("Locked candidates"),
+    NAKED_PAIR("Naked pair"), HIDDEN_PAIR("Hidden pair"), X_WING("X-Wing"), SWORDFISH("Swordfish"),
+    SIMPLE_COLORING("Simple coloring"), TRIAL_AND_ERROR("Trial and error");
+
+    @Getter
+    private final String displayName;
+
+    private Technique(String displayName) {
+        this.displayName = displayName;
+    }
+
+}
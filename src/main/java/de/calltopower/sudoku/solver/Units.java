@@ -0,0 +1,65 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.solver;
+
+import de.calltopower.sudoku.util.Constants;
+import de.calltopower.sudoku.util.Grid;
+
+final class Units {
+
+    static final int ALL_VALUES = (1 << Constants.GRID_SIZE) - 1;
+
+    static final int NR_OF_UNITS = 3 * Constants.GRID_SIZE;
+
+    static final int[] ROW_OF_CELL = new int[Grid.NR_OF_CELLS];
+    static final int[] COL_OF_CELL = new int[Grid.NR_OF_CELLS];
+    static final int[] BOX_OF_CELL = new int[Grid.NR_OF_CELLS];
+
+    // Rows first, then columns, then boxes
+    static final int[][] UNITS = new int[NR_OF_UNITS][Constants.GRID_SIZE];
+    static final int[][] PEERS = new int[Grid.NR_OF_CELLS][20];
+
+    static {
+        for (int cell = 0; cell < Grid.NR_OF_CELLS; ++cell) {
+            int i = cell / Constants.GRID_SIZE;
+            int j = cell % Constants.GRID_SIZE;
+            int b = box(i, j);
+            int k = ((i % 3) * 3) + (j % 3);
+            ROW_OF_CELL[cell] = i;
+            COL_OF_CELL[cell] = j;
+            BOX_OF_CELL[cell] = b;
+            UNITS[i][j] = cell;
+            UNITS[Constants.GRID_SIZE + j][i] = cell;
+            UNITS[(2 * Constants.GRID_SIZE) + b][k] = cell;
+        }
+        for (int cell = 0; cell < Grid.NR_OF_CELLS; ++cell) {
+            int p = 0;
+            for (int other = 0; other < Grid.NR_OF_CELLS; ++other) {
+                if ((other != cell) && ((ROW_OF_CELL[other] == ROW_OF_CELL[cell])
+                        || (COL_OF_CELL[other] == COL_OF_CELL[cell]) || (BOX_OF_CELL[other] == BOX_OF_CELL[cell]))) {
+                    PEERS[cell][p++] = other;
+                }
+            }
+        }
+    }
+
+    private Units() {
+        // Nothing to see here...
+    }
+
+    static int box(int i, int j) {
+        return ((i / 3) * 3) + (j / 3);
+    }
+
+    static int bit(int val) {
+        return 1 << (val - 1);
+    }
+
+    static int value(int bit) {
+        return Integer.numberOfTrailingZeros(bit) + 1;
+    }
+
+}
@@ -0,0 +1,99 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.task;
+
+import de.calltopower.sudoku.generator.Generator;
+import de.calltopower.sudoku.solver.SudokuSolver;
+
+/**
+ * A unit of work for a TaskRunner. Cancellation is cooperative: run() registers every solver and generator it uses
+ * with observe(), cancel() then makes them return early, and run() is expected to return soon after.
+ *
+ * @param <T> the type of the result
+ */
+public abstract class SudokuTask<T> {
+
+    private volatile boolean cancelled = false;
+    private volatile SudokuSolver solver = null;
+    private volatile Generator generator = null;
+    private volatile long nrOfNodesOfPreviousObjects = 0;
+
+    /**
+     * Runs on a worker thread, must not touch the UI
+     *
+     * @return the result, ignored if the task has been cancelled in the meantime
+     */
+    protected abstract T run() throws Exception;
+
+    /**
+     * Registers the solver run() is about to use, for cancellation and progress
+     */
+    protected final <S extends SudokuSolver> S observe(S solver) {
+        long nrOfNodes = getNrOfObservedNodes();
+        this.generator = null;
+        this.solver = solver;
+        nrOfNodesOfPreviousObjects += nrOfNodes;
+        if (cancelled) {
+            solver.cancel();
+        }
+        return solver;
+    }
+
+    /**
+     * Registers the generator run() is about to use, for cancellation and progress
+     */
+    protected final Generator observe(Generator generator) {
+        long nrOfNodes = getNrOfObservedNodes();
+        this.solver = null;
+        this.generator = generator;
+        nrOfNodesOfPreviousObjects += nrOfNodes;
+        if (cancelled) {
+            generator.cancel();
+        }
+        return generator;
+    }
+
+    /**
+     * May be called from any thread
+     */
+    public final void cancel() {
+        cancelled = true;
+        SudokuSolver currentSolver = solver;
+        if (currentSolver != null) {
+            currentSolver.cancel();
+        }
+        Generator currentGenerator = generator;
+        if (currentGenerator != null) {
+            currentGenerator.cancel();
+        }
+    }
+
+    public final boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return the search nodes of all solvers and generators observed so far
+     */
+    long getNrOfNodes() {
+        return nrOfNodesOfPreviousObjects + getNrOfObservedNodes();
+    }
+
+    private long getNrOfObservedNodes() {
+        Generator currentGenerator = generator;
+        if (currentGenerator != null) {
+            return currentGenerator.getNrOfNodes();
+        }
+        SudokuSolver currentSolver = solver;
+        return (currentSolver != null) ? currentSolver.getCurrNrOfTries() : 0;
+    }
+
+    int getDepth() {
+        SudokuSolver currentSolver = solver;
+        return (currentSolver != null) ? currentSolver.getCurrDepth() : 0;
+    }
+
+}
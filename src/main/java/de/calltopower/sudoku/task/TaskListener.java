@@ -0,0 +1,30 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.task;
+
+/**
+ * Receives the outcome of a task on the callback executor of its TaskRunner. Exactly one of done(), cancelled() and
+ * failed() is called per task, progress() only before that.
+ *
+ * @param <T> the type of the result
+ */
+public interface TaskListener<T> {
+
+    void done(T result);
+
+    /**
+     * @param timedOut whether the task has been cancelled because it ran into its timeout
+     */
+    default void cancelled(boolean timedOut) {
+    }
+
+    default void failed(Exception ex) {
+    }
+
+    default void progress(TaskProgress progress) {
+    }
+
+}
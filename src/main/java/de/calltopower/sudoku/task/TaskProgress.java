@@ -0,0 +1,40 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.task;
+
+import lombok.Getter;
+
+/**
+ * A snapshot of a running task
+ */
+public class TaskProgress {
+
+    @Getter
+    private final long nrOfNodes;
+    @Getter
+    private final double nodesPerSecond;
+    /**
+     * The current search depth, 0 for a generator
+     */
+    @Getter
+    private final int depth;
+    @Getter
+    private final long millis;
+
+    public TaskProgress(long nrOfNodes, double nodesPerSecond, int depth, long millis) {
+        this.nrOfNodes = nrOfNodes;
+        this.nodesPerSecond = nodesPerSecond;
+        this.depth = depth;
+        this.millis = millis;
+    }
+
+    @Override
+    public String toString() {
+        return nrOfNodes + " nodes, " + String.format("%.0f", nodesPerSecond) + " nodes/s, depth " + depth + ", "
+                + millis + " ms";
+    }
+
+}
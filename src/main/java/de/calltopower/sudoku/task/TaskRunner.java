@@ -0,0 +1,133 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.task;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.calltopower.sudoku.util.NamedThreadFactory;
+
+/**
+ * Runs SudokuTasks on a fixed number of daemon worker threads. A single monitor thread enforces timeouts and samples
+ * the progress of running tasks. Results and progress are handed to the listener through the callback executor, e.g.
+ * SwingUtilities::invokeLater for the event dispatch thread. Progress is throttled to one sample per interval and
+ * dropped while the previous sample has not been delivered yet, so a slow callback thread is never flooded.
+ */
+public class TaskRunner {
+
+    private static final Logger LOGGER = LogManager.getLogger(TaskRunner.class);
+
+    private final ExecutorService workers;
+    private final ScheduledExecutorService monitor;
+    private final Executor callbackExecutor;
+    private final long progressIntervalMillis;
+
+    public TaskRunner(String name, int nrOfThreads, Executor callbackExecutor, long progressIntervalMillis) {
+        workers = Executors.newFixedThreadPool(nrOfThreads, new NamedThreadFactory(name));
+        monitor = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory(name + "-Monitor"));
+        this.callbackExecutor = callbackExecutor;
+        this.progressIntervalMillis = progressIntervalMillis;
+    }
+
+    /**
+     * @param timeoutMillis the time after which the task is cancelled, 0 for none
+     */
+    public <T> void submit(SudokuTask<T> task, long timeoutMillis, TaskListener<T> listener) {
+        try {
+            workers.execute(() -> execute(task, timeoutMillis, listener));
+        } catch (RejectedExecutionException ex) {
+            LOGGER.error("Task runner has been shut down");
+            callbackExecutor.execute(() -> listener.failed(ex));
+        }
+    }
+
+    private <T> void execute(SudokuTask<T> task, long timeoutMillis, TaskListener<T> listener) {
+        AtomicBoolean timedOut = new AtomicBoolean(false);
+        AtomicBoolean progressPending = new AtomicBoolean(false);
+        AtomicBoolean finished = new AtomicBoolean(false);
+        long start = System.nanoTime();
+        ScheduledFuture<?> timeout = null;
+        ScheduledFuture<?> sampler = null;
+        try {
+            if (timeoutMillis > 0) {
+                timeout = monitor.schedule(() -> {
+                    timedOut.set(true);
+                    task.cancel();
+                }, timeoutMillis, TimeUnit.MILLISECONDS);
+            }
+            sampler = monitor.scheduleAtFixedRate(new Runnable() {
+                private long lastNrOfNodes = 0;
+                private long lastNanos = start;
+
+                @Override
+                public void run() {
+                    long now = System.nanoTime();
+                    long nrOfNodes = task.getNrOfNodes();
+                    double nodesPerSecond = (Math.max(nrOfNodes - lastNrOfNodes, 0) * 1e9)
+                            / Math.max(now - lastNanos, 1);
+                    lastNrOfNodes = nrOfNodes;
+                    lastNanos = now;
+                    if (progressPending.compareAndSet(false, true)) {
+                        TaskProgress progress = new TaskProgress(nrOfNodes, nodesPerSecond, task.getDepth(),
+                                (now - start) / 1000000);
+                        callbackExecutor.execute(() -> {
+                            progressPending.set(false);
+                            // A sample taken just before the end must not arrive after the result
+                            if (!finished.get()) {
+                                listener.progress(progress);
+                            }
+                        });
+                    }
+                }
+            }, progressIntervalMillis, progressIntervalMillis, TimeUnit.MILLISECONDS);
+
+            T result = task.isCancelled() ? null : task.run();
+            finished.set(true);
+            stop(timeout, sampler);
+            if (task.isCancelled()) {
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Task cancelled" + (timedOut.get() ? " after its timeout of " + timeoutMillis
+                            + " ms" : "") + " after " + ((System.nanoTime() - start) / 1000000) + " ms");
+                }
+                callbackExecutor.execute(() -> listener.cancelled(timedOut.get()));
+            } else {
+                callbackExecutor.execute(() -> listener.done(result));
+            }
+        } catch (Exception ex) {
+            finished.set(true);
+            stop(timeout, sampler);
+            LOGGER.error("Exception while running task", ex);
+            callbackExecutor.execute(() -> listener.failed(ex));
+        }
+    }
+
+    private static void stop(ScheduledFuture<?> timeout, ScheduledFuture<?> sampler) {
+        if (timeout != null) {
+            timeout.cancel(false);
+        }
+        if (sampler != null) {
+            sampler.cancel(false);
+        }
+    }
+
+    /**
+     * Stops accepting tasks, cancels nothing that is running
+     */
+    public void shutdown() {
+        workers.shutdown();
+        monitor.shutdown();
+    }
+
+}
@@ -18,11 +18,17 @@ public class Constants {
 
     public final static int MS_SPLASHSCREEN = 10;
     public final static int MS_SPLASHSCREEN_NOIMG = 2;
+    public final static int MS_TASK_TIMEOUT = 60000;
+    public final static int MS_TASK_PROGRESS_INTERVAL = 250;
 
     public final static int GRID_SIZE = 9;
 
     public final static int DEFAULT_MAX_NR_OF_TRIES = 50000;
 
+    public final static int PUZZLE_POOL_WATERMARK = 10;
+    public final static String PUZZLE_POOL_DIRECTORY = System.getProperty("user.home") + "/Sudoku";
+    public final static String PUZZLE_POOL_FILENAME = "puzzlepool.txt";
+
     // Minimum value must be >= 18
     public final static int MAX_NR_OF_GENERATED_NUMBERS_EASY = 35;
     public final static int MAX_NR_OF_GENERATED_NUMBERS_NORMAL = 28;
@@ -10,6 +10,10 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -89,17 +93,18 @@ public final class FileUtils {
                 LOGGER.error("Cannot read file '" + fileName + "'");
                 return "";
             }
-            String cont = "";
+            StringBuilder cont = new StringBuilder();
             reader = new BufferedReader(new FileReader(f));
             String c_line = reader.readLine();
             while (c_line != null) {
-                cont += " " + c_line.trim();
+                cont.append(' ').append(c_line.trim());
                 c_line = reader.readLine();
             }
+            String result = cont.toString().trim();
             if (LOGGER.isDebugEnabled()) {
-                LOGGER.debug("Successfully read from file: " + cont.trim());
+                LOGGER.debug("Successfully read from file: " + result);
             }
-            return cont.trim();
+            return result;
         } catch (Exception e) {
             LOGGER.error("Exception: " + e.getMessage());
         } finally {
@@ -115,4 +120,84 @@ public final class FileUtils {
         return "";
     }
 
+    public static List<String> readLinesFromFile(String fileName) {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Trying to read lines from file '" + fileName);
+        }
+        List<String> lines = new ArrayList<>();
+        BufferedReader reader = null;
+        try {
+            File f = new File(fileName);
+
+            if (!f.exists()) {
+                LOGGER.error("File '" + fileName + "' does not exist");
+                return lines;
+            }
+            if (!f.canRead()) {
+                LOGGER.error("Cannot read file '" + fileName + "'");
+                return lines;
+            }
+            reader = new BufferedReader(new FileReader(f));
+            String c_line = reader.readLine();
+            while (c_line != null) {
+                lines.add(c_line.trim());
+                c_line = reader.readLine();
+            }
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Successfully read " + lines.size() + " lines from file");
+            }
+        } catch (Exception e) {
+            LOGGER.error("Exception: " + e.getMessage());
+        } finally {
+            try {
+                if (reader != null) {
+                    reader.close();
+                }
+            } catch (Exception e) {
+                LOGGER.error("Exception: " + e.getMessage());
+            }
+        }
+
+        return lines;
+    }
+
+    /**
+     * Writes the puzzles into a binary PuzzleArchive, see PuzzleArchiveWriter for archives too large for memory
+     */
+    public static boolean writeArchive(String fileName, Map<Integer, ? extends Collection<Grid>> puzzlesByDifficulty) {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Writing archive '" + fileName + "'");
+        }
+        try (PuzzleArchiveWriter writer = new PuzzleArchiveWriter(fileName)) {
+            for (Map.Entry<Integer, ? extends Collection<Grid>> puzzles : puzzlesByDifficulty.entrySet()) {
+                for (Grid puzzle : puzzles.getValue()) {
+                    writer.add(puzzles.getKey(), puzzle);
+                }
+            }
+            return true;
+        } catch (Exception e) {
+            LOGGER.error("Exception: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * @return the memory mapped archive, to be closed by the caller, or null if it could not be opened
+     */
+    public static PuzzleArchive readArchive(String fileName) {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Trying to open archive '" + fileName + "'");
+        }
+        try {
+            PuzzleArchive archive = new PuzzleArchive(fileName);
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Successfully opened archive with " + archive.size() + " puzzles");
+            }
+            return archive;
+        } catch (Exception e) {
+            LOGGER.error("Exception: " + e.getMessage());
+        }
+        return null;
+    }
+
 }
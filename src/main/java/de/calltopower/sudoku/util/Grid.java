@@ -5,26 +5,25 @@
  */
 package de.calltopower.sudoku.util;
 
+import java.nio.ByteBuffer;
+
 public class Grid {
 
-    private final Integer[][] field;
+    public final static int NR_OF_CELLS = Constants.GRID_SIZE * Constants.GRID_SIZE;
+    public final static int SPACED_LENGTH = (2 * NR_OF_CELLS) + Constants.GRID_SIZE;
 
-    public Grid() {
-        field = new Integer[Constants.GRID_SIZE][Constants.GRID_SIZE];
-        initGrid();
-    }
+    private static final int BLANK = -1;
+    private static final int NO_VALUE = -2;
 
-    private void initGrid() {
-        for (int i = 0; i < Constants.GRID_SIZE; ++i) {
-            for (int j = 0; j < Constants.GRID_SIZE; ++j) {
-                set(i, j, 0);
-            }
-        }
+    private final byte[] field;
+
+    public Grid() {
+        field = new byte[NR_OF_CELLS];
     }
 
     public int at(int i, int j) {
         if ((i >= 0) && (i < Constants.GRID_SIZE) && (j >= 0) && (j < Constants.GRID_SIZE)) {
-            return field[i][j];
+            return field[(i * Constants.GRID_SIZE) + j];
         } else {
             return -1;
         }
@@ -32,75 +31,191 @@ public class Grid {
 
     public boolean set(int i, int j, int val) {
         if ((i >= 0) && (i < Constants.GRID_SIZE) && (j >= 0) && (j < Constants.GRID_SIZE)) {
-            field[i][j] = val;
+            field[(i * Constants.GRID_SIZE) + j] = (byte) val;
             return true;
         } else {
             return false;
         }
     }
 
+    /**
+     * Unchecked access by cell index (i * GRID_SIZE + j), meant for the solver's hot paths
+     */
+    public int atCell(int cell) {
+        return field[cell];
+    }
+
+    /**
+     * Unchecked write by cell index (i * GRID_SIZE + j), meant for the solver's hot paths
+     */
+    public void setCell(int cell, int val) {
+        field[cell] = (byte) val;
+    }
+
     public void copy(Grid gridToCopy) {
-        for (int i = 0; i < Constants.GRID_SIZE; ++i) {
-            for (int j = 0; j < Constants.GRID_SIZE; ++j) {
-                set(i, j, gridToCopy.at(i, j));
-            }
-        }
+        System.arraycopy(gridToCopy.field, 0, field, 0, NR_OF_CELLS);
     }
 
     public boolean isCompletelyFilled() {
-        for (int i = 0; i < Constants.GRID_SIZE; ++i) {
-            for (int j = 0; j < Constants.GRID_SIZE; ++j) {
-                if (at(i, j) == 0) {
-                    return false;
-                }
+        for (int cell = 0; cell < NR_OF_CELLS; ++cell) {
+            if (field[cell] == 0) {
+                return false;
             }
         }
         return true;
     }
 
+    /**
+     * Parses either format, see parse(CharSequence, int, int)
+     */
     public boolean fromString(String gridStr) {
-        Integer[][] newGrid = new Integer[Constants.GRID_SIZE][Constants.GRID_SIZE];
-        String[] gridSpl = gridStr.split(" ");
-        if (gridSpl.length != (Constants.GRID_SIZE * Constants.GRID_SIZE)) {
+        return parse(gridStr, 0, gridStr.length());
+    }
+
+    /**
+     * Parses the 81 cells, one digit each, '0' or '.' for empty cells. Blanks and line breaks between the cells are
+     * ignored, so this reads the spaced format of toString() as well as the compact 81-character format. The input is
+     * validated first, so the grid is left unchanged if it is invalid.
+     */
+    public boolean parse(CharSequence chars, int start, int end) {
+        int nrOfCells = 0;
+        for (int k = start; k < end; ++k) {
+            int val = valueOf(chars.charAt(k));
+            if ((val == NO_VALUE) || ((val != BLANK) && (++nrOfCells > NR_OF_CELLS))) {
+                return false;
+            }
+        }
+        if (nrOfCells != NR_OF_CELLS) {
             return false;
         }
-        int i = 0;
-        int j = 0;
-        for (String s : gridSpl) {
-            try {
-                int n = Integer.parseInt(s);
-                if (n < 0 || n > 9) {
-                    return false;
-                }
-                newGrid[i][j] = n;
-                ++j;
-                if ((j % Constants.GRID_SIZE) == 0) {
-                    ++i;
-                    j = 0;
-                }
-            } catch (NumberFormatException ex) {
+        int cell = 0;
+        for (int k = start; k < end; ++k) {
+            int val = valueOf(chars.charAt(k));
+            if (val != BLANK) {
+                field[cell++] = (byte) val;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Like parse(CharSequence, int, int) on ASCII bytes
+     */
+    public boolean parse(byte[] bytes, int offset, int length) {
+        int end = offset + length;
+        int nrOfCells = 0;
+        for (int k = offset; k < end; ++k) {
+            int val = valueOf(bytes[k]);
+            if ((val == NO_VALUE) || ((val != BLANK) && (++nrOfCells > NR_OF_CELLS))) {
                 return false;
             }
         }
+        if (nrOfCells != NR_OF_CELLS) {
+            return false;
+        }
+        int cell = 0;
+        for (int k = offset; k < end; ++k) {
+            int val = valueOf(bytes[k]);
+            if (val != BLANK) {
+                field[cell++] = (byte) val;
+            }
+        }
+        return true;
+    }
 
-        for (i = 0; i < Constants.GRID_SIZE; ++i) {
-            for (j = 0; j < Constants.GRID_SIZE; ++j) {
-                set(i, j, newGrid[i][j]);
+    /**
+     * Like parse(CharSequence, int, int) on the remaining ASCII bytes of the buffer, its position is not changed
+     */
+    public boolean parse(ByteBuffer buffer) {
+        int start = buffer.position();
+        int end = buffer.limit();
+        int nrOfCells = 0;
+        for (int k = start; k < end; ++k) {
+            int val = valueOf(buffer.get(k));
+            if ((val == NO_VALUE) || ((val != BLANK) && (++nrOfCells > NR_OF_CELLS))) {
+                return false;
+            }
+        }
+        if (nrOfCells != NR_OF_CELLS) {
+            return false;
+        }
+        int cell = 0;
+        for (int k = start; k < end; ++k) {
+            int val = valueOf(buffer.get(k));
+            if (val != BLANK) {
+                field[cell++] = (byte) val;
             }
         }
         return true;
     }
 
-    @Override
-    public String toString() {
-        String cont = "";
-        for (int i = 0; i < Constants.GRID_SIZE; ++i) {
-            for (int j = 0; j < Constants.GRID_SIZE; ++j) {
-                cont += at(i, j) + " ";
+    private static int valueOf(int c) {
+        if ((c >= '0') && (c <= '9')) {
+            return c - '0';
+        }
+        if (c == '.') {
+            return 0;
+        }
+        return ((c == ' ') || (c == '\t') || (c == '\r') || (c == '\n')) ? BLANK : NO_VALUE;
+    }
+
+    /**
+     * Appends the spaced format (one row per line, every value followed by a blank) or the compact 81-character
+     * format
+     */
+    public StringBuilder format(StringBuilder sb, boolean spaced) {
+        for (int cell = 0; cell < NR_OF_CELLS; ++cell) {
+            sb.append((char) ('0' + field[cell]));
+            if (spaced) {
+                sb.append(' ');
+                if ((cell % Constants.GRID_SIZE) == (Constants.GRID_SIZE - 1)) {
+                    sb.append('\n');
+                }
+            }
+        }
+        return sb;
+    }
+
+    /**
+     * Writes the spaced or compact format as ASCII bytes
+     *
+     * @return the offset after the last byte written
+     */
+    public int format(byte[] bytes, int offset, boolean spaced) {
+        for (int cell = 0; cell < NR_OF_CELLS; ++cell) {
+            bytes[offset++] = (byte) ('0' + field[cell]);
+            if (spaced) {
+                bytes[offset++] = ' ';
+                if ((cell % Constants.GRID_SIZE) == (Constants.GRID_SIZE - 1)) {
+                    bytes[offset++] = '\n';
+                }
             }
-            cont += "\n";
         }
-        return cont;
+        return offset;
+    }
+
+    /**
+     * Puts the spaced or compact format as ASCII bytes at the buffer's position
+     */
+    public void format(ByteBuffer buffer, boolean spaced) {
+        for (int cell = 0; cell < NR_OF_CELLS; ++cell) {
+            buffer.put((byte) ('0' + field[cell]));
+            if (spaced) {
+                buffer.put((byte) ' ');
+                if ((cell % Constants.GRID_SIZE) == (Constants.GRID_SIZE - 1)) {
+                    buffer.put((byte) '\n');
+                }
+            }
+        }
+    }
+
+    public String toCompactString() {
+        return format(new StringBuilder(NR_OF_CELLS), false).toString();
+    }
+
+    @Override
+    public String toString() {
+        return format(new StringBuilder(SPACED_LENGTH), true).toString();
     }
 
 }
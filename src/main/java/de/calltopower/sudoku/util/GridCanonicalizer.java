@@ -0,0 +1,242 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.util;
+
+import lombok.Getter;
+
+/**
+ * Maps a grid to the lexicographically smallest grid (row by row, empty cells first) among all its GridTransform
+ * equivalents, so two puzzles are equivalent exactly if their canonical forms are equal.
+ *
+ * For a fixed row and column order the smallest digit permutation numbers the digits in order of first appearance.
+ * Only rows and column orders giving the smallest possible first row are tried, the remaining rows are searched depth
+ * first, one output row at a time, and every branch whose prefix is already larger than the best grid so far is cut.
+ * Instances reuse their buffers, are not thread safe and do not allocate.
+ */
+public class GridCanonicalizer {
+
+    private static final int BAND_SIZE = 3;
+    private static final int[][] PERMUTATIONS_OF_3 = { { 0, 1, 2 }, { 0, 2, 1 }, { 1, 0, 2 }, { 1, 2, 0 },
+            { 2, 0, 1 }, { 2, 1, 0 } };
+
+    private final byte[] source = new byte[Grid.NR_OF_CELLS];
+    private final byte[] current = new byte[Grid.NR_OF_CELLS];
+    private final byte[] best = new byte[Grid.NR_OF_CELLS];
+    private final int[] cols = new int[Constants.GRID_SIZE];
+    private final int[] rows = new int[Constants.GRID_SIZE];
+    private final int[] digitToLabel = new int[Constants.GRID_SIZE + 1];
+    private final int[] labelToDigit = new int[Constants.GRID_SIZE + 1];
+    private int nextLabel;
+    private int firstRow;
+    private int nrOfBestUpdates;
+
+    /**
+     * The upper 64 bits of the 128-bit fingerprint computed by the last call to fingerprint()
+     */
+    @Getter
+    private long fingerprintHigh;
+
+    public void canonicalize(Grid grid, Grid canonical) {
+        canonicalize(grid);
+        for (int cell = 0; cell < Grid.NR_OF_CELLS; ++cell) {
+            canonical.setCell(cell, best[cell]);
+        }
+    }
+
+    /**
+     * Hashes the canonical form of the grid, equivalent grids get the same fingerprint.
+     *
+     * @return the lower 64 bits of a 128-bit fingerprint, see getFingerprintHigh()
+     */
+    public long fingerprint(Grid grid) {
+        canonicalize(grid);
+        long low = 0x9E3779B97F4A7C15L;
+        long high = 0xC2B2AE3D27D4EB4FL;
+        long word = 0;
+        for (int cell = 0; cell < Grid.NR_OF_CELLS; ++cell) {
+            word = (word << 4) | best[cell];
+            if (((cell % 16) == 15) || (cell == (Grid.NR_OF_CELLS - 1))) {
+                low = mix(low ^ word);
+                high = mix(high ^ Long.rotateLeft(word, 32));
+                word = 0;
+            }
+        }
+        fingerprintHigh = high;
+        return low;
+    }
+
+    private void canonicalize(Grid grid) {
+        nrOfBestUpdates = 0;
+        nextLabel = 1;
+        int minKey = Integer.MAX_VALUE;
+        for (int transposed = 0; transposed < 2; ++transposed) {
+            fillSource(grid, transposed == 1);
+            for (int r = 0; r < Constants.GRID_SIZE; ++r) {
+                minKey = Math.min(minKey, firstRowKey(r));
+            }
+        }
+        for (int transposed = 0; transposed < 2; ++transposed) {
+            fillSource(grid, transposed == 1);
+            for (int r = 0; r < Constants.GRID_SIZE; ++r) {
+                if (firstRowKey(r) == minKey) {
+                    searchColumns(r);
+                }
+            }
+        }
+    }
+
+    private void fillSource(Grid grid, boolean transposed) {
+        for (int i = 0; i < Constants.GRID_SIZE; ++i) {
+            for (int j = 0; j < Constants.GRID_SIZE; ++j) {
+                int cell = (i * Constants.GRID_SIZE) + j;
+                source[cell] = (byte) grid.atCell(transposed ? (j * Constants.GRID_SIZE) + i : cell);
+            }
+        }
+    }
+
+    private int filledInStack(int r, int stack) {
+        int count = 0;
+        for (int k = 0; k < BAND_SIZE; ++k) {
+            if (source[(r * Constants.GRID_SIZE) + (stack * BAND_SIZE) + k] != 0) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * The smallest first row row r can become is its stacks ordered by number of values, each with its empty cells
+     * first. Its values are then numbered 1, 2, ... from left to right, so only the pattern of filled cells matters.
+     *
+     * @return that pattern as a bit mask, the first cell being the most significant bit
+     */
+    private int firstRowKey(int r) {
+        int a = filledInStack(r, 0);
+        int b = filledInStack(r, 1);
+        int c = filledInStack(r, 2);
+        int min = Math.min(a, Math.min(b, c));
+        int max = Math.max(a, Math.max(b, c));
+        int mid = (a + b + c) - min - max;
+        return (((1 << min) - 1) << (2 * BAND_SIZE)) | (((1 << mid) - 1) << BAND_SIZE) | ((1 << max) - 1);
+    }
+
+    /**
+     * Runs the row search for every column order that turns row r into its smallest first row
+     */
+    private void searchColumns(int r) {
+        for (int[] stacks : PERMUTATIONS_OF_3) {
+            if ((filledInStack(r, stacks[0]) > filledInStack(r, stacks[1]))
+                    || (filledInStack(r, stacks[1]) > filledInStack(r, stacks[2]))) {
+                continue;
+            }
+            for (int[] first : PERMUTATIONS_OF_3) {
+                if (!emptyFirst(r, stacks[0], first)) {
+                    continue;
+                }
+                setStack(0, stacks[0], first);
+                for (int[] second : PERMUTATIONS_OF_3) {
+                    if (!emptyFirst(r, stacks[1], second)) {
+                        continue;
+                    }
+                    setStack(1, stacks[1], second);
+                    for (int[] third : PERMUTATIONS_OF_3) {
+                        if (!emptyFirst(r, stacks[2], third)) {
+                            continue;
+                        }
+                        setStack(2, stacks[2], third);
+                        firstRow = r;
+                        search(0, 0, nrOfBestUpdates == 0);
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean emptyFirst(int r, int stack, int[] permutation) {
+        int offset = (r * Constants.GRID_SIZE) + (stack * BAND_SIZE);
+        for (int k = 1; k < BAND_SIZE; ++k) {
+            if ((source[offset + permutation[k - 1]] != 0) && (source[offset + permutation[k]] == 0)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void setStack(int position, int stack, int[] permutation) {
+        for (int k = 0; k < BAND_SIZE; ++k) {
+            cols[(position * BAND_SIZE) + k] = (stack * BAND_SIZE) + permutation[k];
+        }
+    }
+
+    /**
+     * @param less whether the rows placed so far are already smaller than the best grid's
+     */
+    private void search(int level, int usedRows, boolean less) {
+        if (level == Constants.GRID_SIZE) {
+            if (less) {
+                System.arraycopy(current, 0, best, 0, Grid.NR_OF_CELLS);
+                ++nrOfBestUpdates;
+            }
+            return;
+        }
+
+        int offset = level * Constants.GRID_SIZE;
+        for (int r = 0; r < Constants.GRID_SIZE; ++r) {
+            int band = r / BAND_SIZE;
+            boolean candidate;
+            if (level == 0) {
+                candidate = (r == firstRow);
+            } else if ((level % BAND_SIZE) == 0) {
+                candidate = ((usedRows >> (band * BAND_SIZE)) & 0x7) == 0;
+            } else {
+                candidate = (band == (rows[level - 1] / BAND_SIZE)) && ((usedRows & (1 << r)) == 0);
+            }
+            if (!candidate) {
+                continue;
+            }
+
+            int savedLabel = nextLabel;
+            int cmp = less ? -1 : 0;
+            for (int j = 0; j < Constants.GRID_SIZE; ++j) {
+                int val = source[(r * Constants.GRID_SIZE) + cols[j]];
+                if ((val != 0) && (digitToLabel[val] == 0)) {
+                    labelToDigit[nextLabel] = val;
+                    digitToLabel[val] = nextLabel++;
+                }
+                int label = digitToLabel[val];
+                current[offset + j] = (byte) label;
+                if (cmp == 0) {
+                    if (label > best[offset + j]) {
+                        cmp = 1;
+                        break;
+                    }
+                    if (label < best[offset + j]) {
+                        cmp = -1;
+                    }
+                }
+            }
+            if (cmp != 1) {
+                rows[level] = r;
+                int updates = nrOfBestUpdates;
+                search(level + 1, usedRows | (1 << r), cmp < 0);
+                // A new best grid found below shares this prefix, so the remaining rows compare equal again
+                if (updates != nrOfBestUpdates) {
+                    less = false;
+                }
+            }
+            while (nextLabel > savedLabel) {
+                digitToLabel[labelToDigit[--nextLabel]] = 0;
+            }
+        }
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+}
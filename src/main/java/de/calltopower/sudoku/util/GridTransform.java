@@ -0,0 +1,89 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.util;
+
+import java.util.Random;
+
+/**
+ * A validity preserving transformation of a grid: a digit permutation, a row permutation (bands and rows within
+ * bands), a column permutation (stacks and columns within stacks) and an optional transposition. Together these give
+ * 9! * 6^8 * 2, about 1.2 trillion, equivalent puzzles with the same number of solutions and clues per seed puzzle.
+ *
+ * Instances are mutable and not thread safe, randomize() and apply() do not allocate.
+ */
+public class GridTransform {
+
+    private static final int BAND_SIZE = 3;
+
+    private final int[] digits = new int[Constants.GRID_SIZE + 1];
+    private final int[] rows = new int[Constants.GRID_SIZE];
+    private final int[] cols = new int[Constants.GRID_SIZE];
+    private final int[] bands = new int[BAND_SIZE];
+    private boolean transposed;
+
+    public GridTransform() {
+        identity();
+    }
+
+    public void identity() {
+        for (int d = 0; d <= Constants.GRID_SIZE; ++d) {
+            digits[d] = d;
+        }
+        for (int k = 0; k < Constants.GRID_SIZE; ++k) {
+            rows[k] = k;
+            cols[k] = k;
+        }
+        transposed = false;
+    }
+
+    /**
+     * Picks a uniformly random transformation
+     */
+    public void randomize(Random random) {
+        identity();
+        shuffle(digits, 1, Constants.GRID_SIZE, random);
+        shuffleLines(rows, random);
+        shuffleLines(cols, random);
+        transposed = random.nextBoolean();
+    }
+
+    /**
+     * Writes the transformed source grid into the destination grid, which must not be the source grid
+     */
+    public void apply(Grid source, Grid destination) {
+        for (int i = 0; i < Constants.GRID_SIZE; ++i) {
+            int sourceRow = rows[i] * Constants.GRID_SIZE;
+            for (int j = 0; j < Constants.GRID_SIZE; ++j) {
+                int val = digits[source.atCell(sourceRow + cols[j])];
+                destination.setCell(transposed ? (j * Constants.GRID_SIZE) + i : (i * Constants.GRID_SIZE) + j,
+                        val);
+            }
+        }
+    }
+
+    private void shuffleLines(int[] lines, Random random) {
+        for (int b = 0; b < BAND_SIZE; ++b) {
+            bands[b] = b;
+        }
+        shuffle(bands, 0, BAND_SIZE, random);
+        for (int b = 0; b < BAND_SIZE; ++b) {
+            for (int k = 0; k < BAND_SIZE; ++k) {
+                lines[(b * BAND_SIZE) + k] = (bands[b] * BAND_SIZE) + k;
+            }
+            shuffle(lines, b * BAND_SIZE, BAND_SIZE, random);
+        }
+    }
+
+    private static void shuffle(int[] values, int offset, int length, Random random) {
+        for (int k = length - 1; k > 0; --k) {
+            int r = offset + random.nextInt(k + 1);
+            int tmp = values[offset + k];
+            values[offset + k] = values[r];
+            values[r] = tmp;
+        }
+    }
+
+}
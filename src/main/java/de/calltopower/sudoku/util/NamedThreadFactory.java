@@ -0,0 +1,30 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.util;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates daemon threads named "name-n", so pools do not keep the application running
+ */
+public class NamedThreadFactory implements ThreadFactory {
+
+    private final String name;
+    private final AtomicInteger nrOfThreads = new AtomicInteger();
+
+    public NamedThreadFactory(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, name + "-" + nrOfThreads.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+
+}
@@ -0,0 +1,152 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read only access to a binary puzzle archive through memory mapping, puzzle n is decoded straight from the mapped
+ * file.
+ *
+ * Layout (big endian): the magic number, the format version, the number of puzzles and the number of difficulties,
+ * then per difficulty its value, the index of its first puzzle and its number of puzzles, then the puzzles grouped by
+ * difficulty. A puzzle takes RECORD_SIZE bytes, 4 bits per cell, two cells per byte, the first cell in the high
+ * nibble.
+ */
+public class PuzzleArchive implements Closeable {
+
+    public final static int MAGIC = 0x53444B41;
+    public final static int VERSION = 1;
+    public final static int RECORD_SIZE = (Grid.NR_OF_CELLS + 1) / 2;
+
+    final static int HEADER_SIZE = 16;
+    final static int INDEX_ENTRY_SIZE = 12;
+
+    // Records per mapping, a single mapping is limited to 2 GB
+    private static final int RECORDS_PER_SEGMENT = 1 << 24;
+
+    private final FileChannel channel;
+    private final int nrOfPuzzles;
+    private final int[] difficulties;
+    private final int[] firstIndices;
+    private final int[] counts;
+    private final MappedByteBuffer[] segments;
+
+    public PuzzleArchive(String fileName) throws IOException {
+        channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+        try {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if ((header.getInt(0) != MAGIC) || (header.getInt(4) != VERSION)) {
+                throw new IOException("'" + fileName + "' is not a puzzle archive");
+            }
+            nrOfPuzzles = header.getInt(8);
+            int nrOfDifficulties = header.getInt(12);
+            if ((nrOfPuzzles < 0) || (nrOfDifficulties < 0)
+                    || (channel.size() < (HEADER_SIZE + ((long) nrOfDifficulties * INDEX_ENTRY_SIZE)))) {
+                throw new IOException("'" + fileName + "' has a corrupt header");
+            }
+            ByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE,
+                    (long) nrOfDifficulties * INDEX_ENTRY_SIZE);
+            difficulties = new int[nrOfDifficulties];
+            firstIndices = new int[nrOfDifficulties];
+            counts = new int[nrOfDifficulties];
+            for (int d = 0; d < nrOfDifficulties; ++d) {
+                difficulties[d] = index.getInt(d * INDEX_ENTRY_SIZE);
+                firstIndices[d] = index.getInt((d * INDEX_ENTRY_SIZE) + 4);
+                counts[d] = index.getInt((d * INDEX_ENTRY_SIZE) + 8);
+                if ((firstIndices[d] < 0) || (counts[d] < 0) || (((long) firstIndices[d] + counts[d]) > nrOfPuzzles)) {
+                    throw new IOException("'" + fileName + "' has a corrupt index entry for difficulty "
+                            + difficulties[d]);
+                }
+            }
+
+            long recordsStart = HEADER_SIZE + ((long) nrOfDifficulties * INDEX_ENTRY_SIZE);
+            if (channel.size() < (recordsStart + ((long) nrOfPuzzles * RECORD_SIZE))) {
+                throw new IOException("'" + fileName + "' is truncated");
+            }
+            segments = new MappedByteBuffer[(nrOfPuzzles + RECORDS_PER_SEGMENT - 1) / RECORDS_PER_SEGMENT];
+            for (int s = 0; s < segments.length; ++s) {
+                int nrOfRecords = Math.min(RECORDS_PER_SEGMENT, nrOfPuzzles - (s * RECORDS_PER_SEGMENT));
+                segments[s] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        recordsStart + ((long) s * RECORDS_PER_SEGMENT * RECORD_SIZE),
+                        (long) nrOfRecords * RECORD_SIZE);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int size() {
+        return nrOfPuzzles;
+    }
+
+    /**
+     * @return the difficulties in the archive, in archive order
+     */
+    public int[] getDifficulties() {
+        return difficulties.clone();
+    }
+
+    public int size(int difficulty) {
+        int d = indexOf(difficulty);
+        return (d == -1) ? 0 : counts[d];
+    }
+
+    /**
+     * Decodes puzzle n (0 <= n < size()) into the grid
+     */
+    public void get(int n, Grid grid) {
+        MappedByteBuffer segment = segments[n / RECORDS_PER_SEGMENT];
+        int offset = (n % RECORDS_PER_SEGMENT) * RECORD_SIZE;
+        for (int cell = 0; cell < Grid.NR_OF_CELLS; cell += 2) {
+            int b = segment.get(offset + (cell / 2));
+            grid.setCell(cell, (b >> 4) & 0xF);
+            if ((cell + 1) < Grid.NR_OF_CELLS) {
+                grid.setCell(cell + 1, b & 0xF);
+            }
+        }
+    }
+
+    /**
+     * Decodes the n-th puzzle (0 <= n < size(difficulty)) of a difficulty into the grid
+     */
+    public void get(int difficulty, int n, Grid grid) {
+        int d = indexOf(difficulty);
+        if ((d == -1) || (n < 0) || (n >= counts[d])) {
+            throw new IndexOutOfBoundsException("No puzzle " + n + " with difficulty " + difficulty);
+        }
+        get(firstIndices[d] + n, grid);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int indexOf(int difficulty) {
+        for (int d = 0; d < difficulties.length; ++d) {
+            if (difficulties[d] == difficulty) {
+                return d;
+            }
+        }
+        return -1;
+    }
+
+    static void encode(Grid grid, byte[] record) {
+        for (int cell = 0; cell < Grid.NR_OF_CELLS; cell += 2) {
+            int low = ((cell + 1) < Grid.NR_OF_CELLS) ? grid.atCell(cell + 1) : 0;
+            record[cell / 2] = (byte) ((grid.atCell(cell) << 4) | low);
+        }
+    }
+
+}
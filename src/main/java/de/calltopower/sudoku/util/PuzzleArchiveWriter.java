@@ -0,0 +1,110 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.util;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Writes a PuzzleArchive in constant memory. Puzzles may come in any order, they are spooled into one temporary file
+ * per difficulty and grouped when the archive is closed.
+ */
+public class PuzzleArchiveWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final String fileName;
+    private final Map<Integer, File> spoolFiles = new TreeMap<>();
+    private final Map<Integer, OutputStream> spools = new TreeMap<>();
+    private final Map<Integer, Integer> counts = new TreeMap<>();
+    private final byte[] record = new byte[PuzzleArchive.RECORD_SIZE];
+    private int nrOfPuzzles = 0;
+    private boolean closed = false;
+
+    public PuzzleArchiveWriter(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public void add(int difficulty, Grid puzzle) throws IOException {
+        OutputStream spool = spools.get(difficulty);
+        if (spool == null) {
+            File spoolFile = File.createTempFile("puzzlearchive", ".tmp");
+            spoolFile.deleteOnExit();
+            spoolFiles.put(difficulty, spoolFile);
+            spool = new BufferedOutputStream(new FileOutputStream(spoolFile), BUFFER_SIZE);
+            spools.put(difficulty, spool);
+        }
+        PuzzleArchive.encode(puzzle, record);
+        spool.write(record);
+        counts.merge(difficulty, 1, Integer::sum);
+        ++nrOfPuzzles;
+    }
+
+    /**
+     * Writes the archive and removes the temporary files
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            closeSpools();
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(fileName), BUFFER_SIZE))) {
+                out.writeInt(PuzzleArchive.MAGIC);
+                out.writeInt(PuzzleArchive.VERSION);
+                out.writeInt(nrOfPuzzles);
+                out.writeInt(counts.size());
+                int firstIndex = 0;
+                for (Map.Entry<Integer, Integer> count : counts.entrySet()) {
+                    out.writeInt(count.getKey());
+                    out.writeInt(firstIndex);
+                    out.writeInt(count.getValue());
+                    firstIndex += count.getValue();
+                }
+                for (File spoolFile : spoolFiles.values()) {
+                    Files.copy(spoolFile.toPath(), out);
+                }
+            }
+        } finally {
+            for (File spoolFile : spoolFiles.values()) {
+                Files.deleteIfExists(spoolFile.toPath());
+            }
+        }
+    }
+
+    /**
+     * Closes every spool, even if closing an earlier one fails, and rethrows the first failure
+     */
+    private void closeSpools() throws IOException {
+        IOException failure = null;
+        for (OutputStream spool : spools.values()) {
+            try {
+                spool.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+}
@@ -0,0 +1,212 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.util;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import lombok.Getter;
+
+/**
+ * Reads a puzzle corpus, one puzzle per line, in constant memory. A line holds the 81 cells as digits, '.' or '0' for
+ * empty cells; blanks between the cells are ignored, so the space separated .sudoku format is read as well. Empty
+ * lines and lines starting with '#' are skipped. Gzipped files are detected by their magic number.
+ */
+public class PuzzleReader implements Closeable {
+
+    private static final Logger LOGGER = LogManager.getLogger(PuzzleReader.class);
+
+    /**
+     * Queued by readInto() in place of a line that is not a valid puzzle
+     */
+    public final static Grid INVALID = new Grid();
+    /**
+     * Queued by readInto() after the last puzzle
+     */
+    public final static Grid END_OF_INPUT = new Grid();
+    /**
+     * Queued by readInto() instead of END_OF_INPUT if reading failed, see getReadError()
+     */
+    public final static Grid READ_ERROR = new Grid();
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int GZIP_MAGIC = 0x8B1F;
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position = 0;
+    private int limit = 0;
+    private final byte[] cells = new byte[Grid.NR_OF_CELLS];
+
+    /**
+     * Whether the line read by the last call to next() was a valid puzzle
+     */
+    @Getter
+    private boolean valid;
+    @Getter
+    private long nrOfPuzzleLines;
+    /**
+     * The exception that made readInto() stop early, null if it read all puzzles
+     */
+    @Getter
+    private volatile IOException readError;
+
+    public PuzzleReader(String fileName) throws IOException {
+        this(new FileInputStream(fileName));
+    }
+
+    public PuzzleReader(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in, 2);
+        buffered.mark(2);
+        int magic = buffered.read() | (buffered.read() << 8);
+        buffered.reset();
+        this.in = (magic == GZIP_MAGIC) ? new GZIPInputStream(buffered, BUFFER_SIZE) : buffered;
+    }
+
+    /**
+     * Reads the next puzzle line. If it is valid it is written into the grid, otherwise the grid stays unchanged and
+     * isValid() returns false.
+     *
+     * @return false at the end of the input
+     */
+    public boolean next(Grid grid) throws IOException {
+        while (true) {
+            int b = read();
+            if (b == -1) {
+                return false;
+            }
+            if ((b == '\n') || (b == '\r')) {
+                continue;
+            }
+            if (b == '#') {
+                skipLine();
+                continue;
+            }
+            int nrOfCells = parseLine(b);
+            if (nrOfCells == 0) {
+                continue;
+            }
+            ++nrOfPuzzleLines;
+            valid = (nrOfCells == Grid.NR_OF_CELLS);
+            if (valid) {
+                for (int cell = 0; cell < Grid.NR_OF_CELLS; ++cell) {
+                    grid.setCell(cell, cells[cell]);
+                }
+            }
+            return true;
+        }
+    }
+
+    public Thread readInto(BlockingQueue<Grid> queue) {
+        return readInto(queue, null);
+    }
+
+    /**
+     * Reads all puzzles on a new daemon thread. The queue bounds the memory used and lets the consumer work while the
+     * rest is still being parsed. The last element is END_OF_INPUT, or READ_ERROR after an I/O error. The reader is
+     * closed at the end. A consumer that stops early must interrupt the returned thread, which may be waiting for room
+     * in the queue.
+     *
+     * @param free grids the consumer is done with, the puzzles are read into these before new ones are allocated; null
+     *            for a new grid per puzzle
+     */
+    public Thread readInto(BlockingQueue<Grid> queue, BlockingQueue<Grid> free) {
+        Thread thread = new Thread(() -> {
+            Grid last = END_OF_INPUT;
+            try {
+                Grid grid = nextFree(free);
+                while (next(grid)) {
+                    if (valid) {
+                        queue.put(grid);
+                        grid = nextFree(free);
+                    } else {
+                        queue.put(INVALID);
+                    }
+                }
+            } catch (IOException e) {
+                LOGGER.error("Exception: " + e.getMessage());
+                readError = e;
+                last = READ_ERROR;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                try {
+                    close();
+                } catch (IOException e) {
+                    LOGGER.error("Exception: " + e.getMessage());
+                }
+            }
+            try {
+                queue.put(last);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "PuzzleReader");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private static Grid nextFree(BlockingQueue<Grid> free) {
+        Grid grid = (free != null) ? free.poll() : null;
+        return (grid != null) ? grid : new Grid();
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * @return the number of cells on the line or -1 if it contains anything else
+     */
+    private int parseLine(int b) throws IOException {
+        int cell = 0;
+        boolean ok = true;
+        for (; (b != -1) && (b != '\n') && (b != '\r'); b = read()) {
+            if ((b == ' ') || (b == '\t')) {
+                continue;
+            }
+            if (ok && (cell < Grid.NR_OF_CELLS) && (b >= '0') && (b <= '9')) {
+                cells[cell++] = (byte) (b - '0');
+            } else if (ok && (cell < Grid.NR_OF_CELLS) && (b == '.')) {
+                cells[cell++] = 0;
+            } else {
+                ok = false;
+            }
+        }
+        return ok ? cell : -1;
+    }
+
+    private void skipLine() throws IOException {
+        int b = read();
+        while ((b != -1) && (b != '\n')) {
+            b = read();
+        }
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = in.read(buffer, 0, BUFFER_SIZE);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+}
@@ -0,0 +1,64 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.util;
+
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes one 81-character puzzle per line, gzipped if the file name ends with ".gz"
+ */
+public class PuzzleWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int LINE_LENGTH = Grid.NR_OF_CELLS + 1;
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position = 0;
+
+    public PuzzleWriter(String fileName) throws IOException {
+        this(fileName.endsWith(".gz") ? new GZIPOutputStream(new FileOutputStream(fileName), BUFFER_SIZE)
+                : new FileOutputStream(fileName));
+    }
+
+    public PuzzleWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    public void write(Grid grid) throws IOException {
+        if ((position + LINE_LENGTH) > BUFFER_SIZE) {
+            flush();
+        }
+        position = grid.format(buffer, position, false);
+        buffer[position++] = '\n';
+    }
+
+    public void writeEmptyLine() throws IOException {
+        if (position == BUFFER_SIZE) {
+            flush();
+        }
+        buffer[position++] = '\n';
+    }
+
+    public void flush() throws IOException {
+        out.write(buffer, 0, position);
+        position = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            out.close();
+        }
+    }
+
+}
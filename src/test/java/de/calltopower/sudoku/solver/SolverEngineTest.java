@@ -0,0 +1,100 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import de.calltopower.sudoku.util.Grid;
+
+/**
+ * All engines have to agree on the solution and on the number of solutions
+ */
+class SolverEngineTest {
+
+    private static final int MAX_NR_OF_TRIES = 10000000;
+
+    private static final String[] UNIQUE = {
+            "53..7....6..195....98....6.8...6...34..8.3..17...2...6.6....28....419..5....8..79",
+            "000000000000003085001020000000507000004000100090000000500000073002010000000040009",
+            "400000805030000000000700000020000060000080400000010000000603070500200000104000000",
+            "8..........36......7..9.2...5...7.......457.....1...3...1....68..85...1..9....4.." };
+
+    private static final String[] MULTIPLE = {
+            ".................................................................................",
+            "53..7....6..195....98......8...6...34..8.3..17...2...6.6....28....419..5....8..79" };
+
+    // Valid givens without a solution, and givens clashing in a row, a column and a box
+    private static final String[] UNSOLVABLE = {
+            "..9.287..8.6..4..5..3.....46.........2.71345.........23.....5..9..4..8.7..125.3..",
+            "55...............................................................................",
+            "5........5.......................................................................",
+            "5.........5......................................................................" };
+
+    @Test
+    void solvesUniquePuzzlesIdentically() {
+        for (String puzzle : UNIQUE) {
+            String expected = null;
+            for (SolverEngine engine : SolverEngine.values()) {
+                SudokuSolver solver = engine.create(parse(puzzle), MAX_NR_OF_TRIES, false);
+                assertTrue(solver.solve(), engine + " " + puzzle);
+                assertTrue(SudokuSolver.checkGrid(solver.getGrid()), engine + " " + puzzle);
+                String solution = solver.getGrid().toCompactString();
+                if (expected == null) {
+                    expected = solution;
+                }
+                assertEquals(expected, solution, engine + " " + puzzle);
+                assertEquals(1, engine.create(parse(puzzle), MAX_NR_OF_TRIES, false).countSolutions(2),
+                        engine + " " + puzzle);
+            }
+        }
+    }
+
+    @Test
+    void countsMultipleSolutions() {
+        for (String puzzle : MULTIPLE) {
+            for (SolverEngine engine : SolverEngine.values()) {
+                SudokuSolver solver = engine.create(parse(puzzle), MAX_NR_OF_TRIES, false);
+                assertEquals(2, solver.countSolutions(2), engine + " " + puzzle);
+                assertTrue(SudokuSolver.checkGrid(solver.getGrid()), engine + " " + puzzle);
+            }
+        }
+    }
+
+    @Test
+    void rejectsUnsolvablePuzzles() {
+        for (String puzzle : UNSOLVABLE) {
+            for (SolverEngine engine : SolverEngine.values()) {
+                assertFalse(engine.create(parse(puzzle), MAX_NR_OF_TRIES, false).solve(), engine + " " + puzzle);
+                assertEquals(0, engine.create(parse(puzzle), MAX_NR_OF_TRIES, false).countSolutions(2),
+                        engine + " " + puzzle);
+            }
+        }
+    }
+
+    @Test
+    void solvesAgainAfterReset() {
+        for (SolverEngine engine : SolverEngine.values()) {
+            SudokuSolver solver = engine.create(parse(UNSOLVABLE[1]), MAX_NR_OF_TRIES, false);
+            assertFalse(solver.solve(), engine.toString());
+            for (String puzzle : UNIQUE) {
+                solver.reset(parse(puzzle));
+                assertTrue(solver.solve(), engine + " " + puzzle);
+                assertTrue(SudokuSolver.checkGrid(solver.getGrid()), engine + " " + puzzle);
+            }
+        }
+    }
+
+    private static Grid parse(String puzzle) {
+        Grid grid = new Grid();
+        assertTrue(grid.fromString(puzzle), puzzle);
+        return grid;
+    }
+
+}
@@ -0,0 +1,79 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class GridCanonicalizerTest {
+
+    private static final int NR_OF_TRANSFORMS = 200;
+
+    private static final String[] GRIDS = {
+            "53..7....6..195....98....6.8...6...34..8.3..17...2...6.6....28....419..5....8..79",
+            "000000000000003085001020000000507000004000100090000000500000073002010000000040009",
+            "534678912672195348198342567859761423426853791713924856961537284287419635345286179",
+            "4.....8.5.3..........7......2.....6.....8.4......1.......6.3.7.5..2.....1.4......",
+            "812753649943682175675491283154237896369845721287169534521974368438526917796318452" };
+
+    @Test
+    void canonicalFormIsInvariantUnderTransforms() {
+        Random random = new Random(42);
+        GridCanonicalizer canonicalizer = new GridCanonicalizer();
+        GridTransform transform = new GridTransform();
+        Grid transformed = new Grid();
+        Grid canonical = new Grid();
+        for (String str : GRIDS) {
+            Grid grid = parse(str);
+            canonicalizer.canonicalize(grid, canonical);
+            String expected = canonical.toCompactString();
+            long expectedLow = canonicalizer.fingerprint(grid);
+            long expectedHigh = canonicalizer.getFingerprintHigh();
+            for (int t = 0; t < NR_OF_TRANSFORMS; ++t) {
+                transform.randomize(random);
+                transform.apply(grid, transformed);
+                canonicalizer.canonicalize(transformed, canonical);
+                assertEquals(expected, canonical.toCompactString(), str);
+                assertEquals(expectedLow, canonicalizer.fingerprint(transformed), str);
+                assertEquals(expectedHigh, canonicalizer.getFingerprintHigh(), str);
+            }
+        }
+    }
+
+    @Test
+    void canonicalFormIsIdempotent() {
+        GridCanonicalizer canonicalizer = new GridCanonicalizer();
+        Grid canonical = new Grid();
+        Grid again = new Grid();
+        for (String str : GRIDS) {
+            canonicalizer.canonicalize(parse(str), canonical);
+            canonicalizer.canonicalize(canonical, again);
+            assertEquals(canonical.toCompactString(), again.toCompactString(), str);
+        }
+    }
+
+    @Test
+    void distinguishesDifferentPuzzles() {
+        GridCanonicalizer canonicalizer = new GridCanonicalizer();
+        Grid first = new Grid();
+        Grid second = new Grid();
+        canonicalizer.canonicalize(parse(GRIDS[0]), first);
+        canonicalizer.canonicalize(parse(GRIDS[1]), second);
+        assertNotEquals(first.toCompactString(), second.toCompactString());
+    }
+
+    private static Grid parse(String str) {
+        Grid grid = new Grid();
+        assertTrue(grid.fromString(str), str);
+        return grid;
+    }
+
+}
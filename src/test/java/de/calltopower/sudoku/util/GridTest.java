@@ -0,0 +1,75 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class GridTest {
+
+    private static final String PUZZLE =
+            "530070000600195000098000060800060003400803001700020006060000280000419005000080079";
+
+    @Test
+    void roundTripsThroughStrings() {
+        Grid grid = parse(PUZZLE);
+        assertEquals(PUZZLE, grid.toCompactString());
+        assertEquals(Grid.SPACED_LENGTH, grid.toString().length());
+        assertEquals(PUZZLE, parse(grid.toString()).toCompactString());
+        assertEquals(PUZZLE, parse(PUZZLE.replace('0', '.')).toCompactString());
+    }
+
+    @Test
+    void roundTripsThroughBytes() {
+        Grid grid = parse(PUZZLE);
+        for (boolean spaced : new boolean[] { false, true }) {
+            byte[] bytes = new byte[Grid.SPACED_LENGTH + 2];
+            int end = grid.format(bytes, 1, spaced);
+            assertEquals(1 + (spaced ? Grid.SPACED_LENGTH : Grid.NR_OF_CELLS), end);
+            assertEquals(grid.format(new StringBuilder(), spaced).toString(),
+                    new String(bytes, 1, end - 1, StandardCharsets.US_ASCII));
+            Grid parsed = new Grid();
+            assertTrue(parsed.parse(bytes, 1, end - 1));
+            assertEquals(PUZZLE, parsed.toCompactString());
+        }
+    }
+
+    @Test
+    void roundTripsThroughByteBuffers() {
+        Grid grid = parse(PUZZLE);
+        for (boolean spaced : new boolean[] { false, true }) {
+            ByteBuffer buffer = ByteBuffer.allocate(Grid.SPACED_LENGTH);
+            grid.format(buffer, spaced);
+            buffer.flip();
+            Grid parsed = new Grid();
+            assertTrue(parsed.parse(buffer));
+            assertEquals(0, buffer.position());
+            assertEquals(PUZZLE, parsed.toCompactString());
+        }
+    }
+
+    @Test
+    void rejectsInvalidInputUnchanged() {
+        Grid grid = parse(PUZZLE);
+        assertFalse(grid.fromString(PUZZLE.substring(1)));
+        assertFalse(grid.fromString(PUZZLE + "0"));
+        assertFalse(grid.fromString(PUZZLE.replace('5', 'x')));
+        assertEquals(PUZZLE, grid.toCompactString());
+    }
+
+    private static Grid parse(String str) {
+        Grid grid = new Grid();
+        assertTrue(grid.fromString(str), str);
+        return grid;
+    }
+
+}
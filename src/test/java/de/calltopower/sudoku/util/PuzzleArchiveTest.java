@@ -0,0 +1,84 @@
+/**
+ * Sudoku
+ * 
+ * Copyright (c) 2014-2023 Denis Meyer
+ */
+package de.calltopower.sudoku.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PuzzleArchiveTest {
+
+    private static final int NR_OF_PUZZLES = 500;
+    private static final int[] DIFFICULTIES = { 3, 1, 4 };
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripsPuzzlesByDifficulty() throws IOException {
+        Random random = new Random(42);
+        List<List<String>> expected = new ArrayList<>();
+        for (int d = 0; d < DIFFICULTIES.length; ++d) {
+            expected.add(new ArrayList<>());
+        }
+        String fileName = directory.resolve("puzzles.bin").toString();
+        try (PuzzleArchiveWriter writer = new PuzzleArchiveWriter(fileName)) {
+            for (int n = 0; n < NR_OF_PUZZLES; ++n) {
+                Grid puzzle = randomGrid(random);
+                int d = random.nextInt(DIFFICULTIES.length);
+                writer.add(DIFFICULTIES[d], puzzle);
+                expected.get(d).add(puzzle.toCompactString());
+            }
+        }
+
+        try (PuzzleArchive archive = new PuzzleArchive(fileName)) {
+            assertEquals(NR_OF_PUZZLES, archive.size());
+            assertArrayEquals(new int[] { 1, 3, 4 }, archive.getDifficulties());
+            assertEquals(0, archive.size(2));
+            Grid grid = new Grid();
+            for (int d = 0; d < DIFFICULTIES.length; ++d) {
+                List<String> puzzles = expected.get(d);
+                assertEquals(puzzles.size(), archive.size(DIFFICULTIES[d]));
+                for (int n = 0; n < puzzles.size(); ++n) {
+                    archive.get(DIFFICULTIES[d], n, grid);
+                    assertEquals(puzzles.get(n), grid.toCompactString());
+                }
+            }
+        }
+    }
+
+    @Test
+    void rejectsCorruptIndex() throws IOException {
+        Path file = directory.resolve("corrupt.bin");
+        try (PuzzleArchiveWriter writer = new PuzzleArchiveWriter(file.toString())) {
+            writer.add(1, randomGrid(new Random(42)));
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).putInt(PuzzleArchive.HEADER_SIZE + 8, 2);
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> new PuzzleArchive(file.toString()).close());
+    }
+
+    private static Grid randomGrid(Random random) {
+        Grid grid = new Grid();
+        for (int cell = 0; cell < Grid.NR_OF_CELLS; ++cell) {
+            grid.setCell(cell, random.nextInt(Constants.GRID_SIZE + 1));
+        }
+        return grid;
+    }
+
+}